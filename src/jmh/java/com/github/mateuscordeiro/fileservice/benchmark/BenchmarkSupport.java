@@ -0,0 +1,133 @@
+package com.github.mateuscordeiro.fileservice.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import com.github.mateuscordeiro.fileservice.concurrency.AppendCoalescer;
+import com.github.mateuscordeiro.fileservice.concurrency.FileConcurrencyManager;
+import com.github.mateuscordeiro.fileservice.config.CacheProperties;
+import com.github.mateuscordeiro.fileservice.config.ChecksumProperties;
+import com.github.mateuscordeiro.fileservice.config.ConcurrencyProperties;
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+import com.github.mateuscordeiro.fileservice.config.FollowProperties;
+import com.github.mateuscordeiro.fileservice.config.IndexProperties;
+import com.github.mateuscordeiro.fileservice.config.JobProperties;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.config.RpcProperties;
+import com.github.mateuscordeiro.fileservice.io.FileIOManagerImpl;
+import com.github.mateuscordeiro.fileservice.io.FileTreeWatcher;
+import com.github.mateuscordeiro.fileservice.rpc.BatchRequestDispatcher;
+import com.github.mateuscordeiro.fileservice.rpc.FileSystemErrorResolver;
+import com.github.mateuscordeiro.fileservice.rpc.FileSystemRpcHandler;
+import com.github.mateuscordeiro.fileservice.rpc.JsonRpcController;
+import com.github.mateuscordeiro.fileservice.rpc.ResponseCompression;
+import com.github.mateuscordeiro.fileservice.rpc.RpcMetricsListener;
+import com.github.mateuscordeiro.fileservice.rpc.RpcRequestProcessor;
+import com.github.mateuscordeiro.fileservice.rpc.WalkStreamer;
+import com.github.mateuscordeiro.fileservice.service.AppendNotifier;
+import com.github.mateuscordeiro.fileservice.service.ChecksumCache;
+import com.github.mateuscordeiro.fileservice.service.FileSystemServiceImpl;
+import com.github.mateuscordeiro.fileservice.service.JobManager;
+import com.github.mateuscordeiro.fileservice.service.MetadataCache;
+import com.github.mateuscordeiro.fileservice.service.NamespaceIndex;
+import com.github.mateuscordeiro.fileservice.service.OperationBatchExecutor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+final class BenchmarkSupport {
+    // Benchmarks pay the same recording cost as the service does in production
+    private static final MeterRegistry METER_REGISTRY = new SimpleMeterRegistry();
+
+    private BenchmarkSupport() {
+    }
+
+    static FileIOManagerImpl newFileIOManager() {
+        return newFileIOManager(new FileIOProperties());
+    }
+
+    static FileIOManagerImpl newFileIOManager(FileIOProperties properties) {
+        return new FileIOManagerImpl(properties, METER_REGISTRY);
+    }
+
+    static FileConcurrencyManager newConcurrencyManager() {
+        return new FileConcurrencyManager(new ConcurrencyProperties(), METER_REGISTRY);
+    }
+
+    static FileSystemServiceImpl newService(Path root) {
+        return newService(root, newConcurrencyManager());
+    }
+
+    static FileSystemServiceImpl newService(Path root, FileConcurrencyManager concurrencyManager) {
+        FileIOManagerImpl fileIOManager = newFileIOManager();
+        AppendCoalescer appendCoalescer = new AppendCoalescer(fileIOManager, concurrencyManager);
+        RootPathProperties rootPathProperties = new RootPathProperties(root);
+        FileTreeWatcher watcher = new FileTreeWatcher(rootPathProperties, new FileIOProperties());
+        return new FileSystemServiceImpl(rootPathProperties, fileIOManager, concurrencyManager, appendCoalescer,
+                                         new MetadataCache(new CacheProperties(), watcher),
+                                         new NamespaceIndex(new IndexProperties(), rootPathProperties, watcher),
+                                         new ChecksumCache(new ChecksumProperties(), rootPathProperties,
+                                                           fileIOManager),
+                                         new AppendNotifier(new FollowProperties(), watcher));
+    }
+
+    static JsonRpcController newController(Path root) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        FileSystemErrorResolver errorResolver = new FileSystemErrorResolver();
+        FileConcurrencyManager concurrencyManager = newConcurrencyManager();
+        FileSystemServiceImpl service = newService(root, concurrencyManager);
+        FileSystemRpcHandler rpcHandler = new FileSystemRpcHandler(
+                service, new RpcProperties(), new JobManager(new JobProperties(), METER_REGISTRY), errorResolver,
+                new OperationBatchExecutor(service, concurrencyManager, new RootPathProperties(root),
+                                           new RpcProperties(), METER_REGISTRY));
+        return new JsonRpcController(new RpcRequestProcessor(
+                rpcHandler, objectMapper,
+                new BatchRequestDispatcher(new RpcProperties(), objectMapper, METER_REGISTRY),
+                new WalkStreamer(service, objectMapper, errorResolver),
+                errorResolver, new RpcMetricsListener(METER_REGISTRY, errorResolver)),
+                new ResponseCompression(new RpcProperties()));
+    }
+
+    static Path createTempRoot() throws IOException {
+        return Files.createTempDirectory("fileservice-jmh").toAbsolutePath().normalize();
+    }
+
+    static void writeFile(Path file, int size) throws IOException {
+        byte[] data = new byte[size];
+        ThreadLocalRandom.current().nextBytes(data);
+        // Keep the content valid ASCII so String decoding cost is representative of text payloads.
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + (data[i] & 0x0F));
+        }
+        Files.createDirectories(file.getParent());
+        Files.write(file, data);
+    }
+
+    static void createTree(Path dir, int fanOut, int depth, int fileSize) throws IOException {
+        Files.createDirectories(dir);
+        for (int i = 0; i < fanOut; i++) {
+            writeFile(dir.resolve("file-" + i + ".txt"), fileSize);
+        }
+        if (depth > 1) {
+            for (int i = 0; i < Math.max(1, fanOut / 10); i++) {
+                createTree(dir.resolve("dir-" + i), fanOut, depth - 1, fileSize);
+            }
+        }
+    }
+
+    static void deleteTree(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path p : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+}
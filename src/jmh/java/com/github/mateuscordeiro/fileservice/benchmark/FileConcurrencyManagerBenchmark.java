@@ -0,0 +1,71 @@
+package com.github.mateuscordeiro.fileservice.benchmark;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import com.github.mateuscordeiro.fileservice.concurrency.FileConcurrencyManager;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileConcurrencyManagerBenchmark {
+    // 1 means every thread contends on the same lock
+    @Param({"1", "16", "4096"})
+    int distinctPaths;
+
+    @Param({"0", "100"})
+    int workTokens;
+
+    private FileConcurrencyManager manager;
+    private Path[] paths;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = BenchmarkSupport.newConcurrencyManager();
+        paths = new Path[distinctPaths];
+        for (int i = 0; i < distinctPaths; i++) {
+            paths[i] = Path.of("/data/fileservice/file-" + i + ".log");
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void withLock_1thread() {
+        lockOnce();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void withLock_4threads() {
+        lockOnce();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void withLock_16threads() {
+        lockOnce();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void withLock_64threads() {
+        lockOnce();
+    }
+
+    private void lockOnce() {
+        Path path = paths[ThreadLocalRandom.current().nextInt(distinctPaths)];
+        manager.withLock(path, () -> Blackhole.consumeCPU(workTokens));
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.mateuscordeiro.fileservice.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.unit.DataSize;
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+import com.github.mateuscordeiro.fileservice.io.FileIOManagerImpl;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileIOManagerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ReadState {
+        @Param({"4096", "1048576", "67108864"})
+        int fileSize;
+
+        @Param({"128", "4096", "65536"})
+        int readLength;
+
+        @Param({"true", "false"})
+        boolean mmap;
+
+        FileIOManagerImpl manager;
+        Path root;
+        Path file;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            FileIOProperties properties = new FileIOProperties();
+            properties.getMmap().setEnabled(mmap);
+            properties.getMmap().setThreshold(DataSize.ofBytes(0));
+            manager = BenchmarkSupport.newFileIOManager(properties);
+            root = BenchmarkSupport.createTempRoot();
+            file = root.resolve("read.txt");
+            BenchmarkSupport.writeFile(file, fileSize);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            BenchmarkSupport.deleteTree(root);
+        }
+
+        long nextOffset() {
+            return ThreadLocalRandom.current().nextLong(Math.max(1, fileSize - readLength));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class WriteState {
+        @Param({"64", "4096", "65536"})
+        int payloadSize;
+
+        FileIOManagerImpl manager;
+        Path root;
+        Path file;
+        String payload;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            manager = BenchmarkSupport.newFileIOManager();
+            root = BenchmarkSupport.createTempRoot();
+            file = root.resolve("append.log");
+            payload = "x".repeat(payloadSize);
+        }
+
+        @Setup(Level.Iteration)
+        public void truncate() throws IOException {
+            Files.write(file, new byte[0]);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            BenchmarkSupport.deleteTree(root);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TreeState {
+        @Param({"10", "100", "1000"})
+        int fanOut;
+
+        @Param({"2"})
+        int depth;
+
+        @Param({"4096"})
+        int fileSize;
+
+        FileIOManagerImpl manager;
+        Path root;
+        Path source;
+        Path target;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            manager = BenchmarkSupport.newFileIOManager();
+            root = BenchmarkSupport.createTempRoot();
+            source = root.resolve("source");
+            target = root.resolve("target");
+            BenchmarkSupport.createTree(source, fanOut, depth, fileSize);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            BenchmarkSupport.deleteTree(root);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CopyState extends TreeState {
+        @TearDown(Level.Invocation)
+        public void clearTarget() throws IOException {
+            BenchmarkSupport.deleteTree(target);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DeleteState extends TreeState {
+        @Setup(Level.Invocation)
+        public void prepareTarget() throws IOException {
+            BenchmarkSupport.deleteTree(target);
+            BenchmarkSupport.createTree(target, fanOut, depth, fileSize);
+        }
+    }
+
+    @Benchmark
+    public String read(ReadState state) throws IOException {
+        return state.manager.read(state.file, state.nextOffset(), state.readLength);
+    }
+
+    @Benchmark
+    public void writeString(WriteState state) throws IOException {
+        state.manager.writeString(state.file, state.payload);
+    }
+
+    @Benchmark
+    public void copyDirectory(CopyState state) throws IOException {
+        state.manager.copyDirectory(state.source, state.target);
+    }
+
+    @Benchmark
+    public void deleteRecursively(DeleteState state) throws IOException {
+        state.manager.deleteRecursively(state.target);
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.mateuscordeiro.fileservice.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import com.github.mateuscordeiro.fileservice.rpc.dto.FileInfo;
+import com.github.mateuscordeiro.fileservice.service.FileSystemServiceImpl;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileSystemServiceBenchmark {
+    @Param({"10", "1000", "50000"})
+    int fanOut;
+
+    private FileSystemServiceImpl service;
+    private Path root;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = BenchmarkSupport.createTempRoot();
+        BenchmarkSupport.createTree(root.resolve("dir"), fanOut, 1, 16);
+        service = BenchmarkSupport.newService(root);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkSupport.deleteTree(root);
+    }
+
+    @Benchmark
+    public List<FileInfo> listChildren() {
+        return service.listChildren("dir");
+    }
+
+    @Benchmark
+    public FileInfo getFileInfo() {
+        return service.getFileInfo("dir/file-" + ThreadLocalRandom.current().nextInt(fanOut) + ".txt");
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.mateuscordeiro.fileservice.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import com.github.mateuscordeiro.fileservice.rpc.JsonRpcController;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonRpcControllerBenchmark {
+    @Param({"getFileInfo", "listChildren", "read"})
+    String method;
+
+    @Param({"100"})
+    int fanOut;
+
+    @Param({"4096"})
+    int fileSize;
+
+    // Accept-Encoding sent with the request; identity leaves the response uncompressed
+    @Param({"identity", "gzip"})
+    String acceptEncoding;
+
+    private JsonRpcController controller;
+    private Path root;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = BenchmarkSupport.createTempRoot();
+        BenchmarkSupport.createTree(root.resolve("dir"), fanOut, 1, fileSize);
+        controller = BenchmarkSupport.newController(root);
+        body = requestBody().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkSupport.deleteTree(root);
+    }
+
+    @Benchmark
+    public byte[] roundTrip() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/filesystem");
+        request.setContentType("application/json");
+        request.setContent(body);
+        request.addHeader("Accept-Encoding", acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.handleRpc(request, response);
+        return response.getContentAsByteArray();
+    }
+
+    private String requestBody() {
+        String params = switch (method) {
+            case "getFileInfo" -> "{\"path\":\"dir/file-0.txt\"}";
+            case "listChildren" -> "{\"path\":\"dir\"}";
+            case "read" -> "{\"path\":\"dir/file-0.txt\",\"offset\":0,\"length\":" + fileSize + "}";
+            default -> throw new IllegalArgumentException("Unsupported method: " + method);
+        };
+        return "{\"jsonrpc\":\"2.0\",\"method\":\"" + method + "\",\"params\":[" + params + "],\"id\":1}";
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.mateuscordeiro.fileservice.concurrency;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.io.FileIOManager;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class AppendCoalescer {
+    private final FileIOManager fileIOManager;
+    private final FileConcurrencyManager fileConcurrencyManager;
+    private final Map<Path, Queue<PendingAppend>> queues = new ConcurrentHashMap<>();
+
+    public void append(Path path, String data) throws IOException {
+        append(path, data, () -> {
+        });
+    }
+
+    // whileLocked runs after the batch holding data was written, before the file's lock is released
+    public void append(Path path, String data, Runnable whileLocked) throws IOException {
+        PendingAppend pending = new PendingAppend(ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8)));
+        Queue<PendingAppend> queue = queues.computeIfAbsent(path, p -> new ConcurrentLinkedQueue<>());
+        queue.add(pending);
+
+        // Whoever gets the lock first writes everything queued so far; the others find their append done
+        fileConcurrencyManager.withLock(path, () -> {
+            if (!pending.done) {
+                flush(path, queue);
+                whileLocked.run();
+            }
+        });
+
+        if (pending.failure instanceof IOException e) {
+            throw e;
+        }
+        if (pending.failure instanceof RuntimeException e) {
+            throw e;
+        }
+    }
+
+    private void flush(Path path, Queue<PendingAppend> queue) {
+        List<PendingAppend> batch = new ArrayList<>();
+        PendingAppend next;
+        while ((next = queue.poll()) != null) {
+            batch.add(next);
+        }
+
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = batch.get(i).data;
+        }
+
+        Exception failure = null;
+        try {
+            fileIOManager.append(path, buffers);
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+        for (PendingAppend append : batch) {
+            append.failure = failure;
+            append.done = true;
+        }
+
+        if (queue.isEmpty()) {
+            queues.remove(path, queue);
+        }
+    }
+
+    private static class PendingAppend {
+        private final ByteBuffer data;
+        // Set under the path lock; the owner reads them after it has held the lock itself
+        private boolean done;
+        private Exception failure;
+
+        private PendingAppend(ByteBuffer data) {
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.mateuscordeiro.fileservice.concurrency;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+public class ExecutorUtils {
+    // Fixed pool of daemon threads named prefix + n behind a bounded queue, with its metrics under metricName
+    public static ThreadPoolExecutor newBoundedPool(String threadPrefix, int threads, int queueCapacity,
+                                                    RejectedExecutionHandler rejectionHandler, String metricName,
+                                                    MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                                                             new LinkedBlockingQueue<>(queueCapacity),
+                                                             daemonThreadFactory(threadPrefix), rejectionHandler);
+        new ExecutorServiceMetrics(executor, metricName, Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    public static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
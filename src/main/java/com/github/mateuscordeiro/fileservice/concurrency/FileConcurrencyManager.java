@@ -1,27 +1,126 @@
 package com.github.mateuscordeiro.fileservice.concurrency;
 
 import java.nio.file.Path;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.config.ConcurrencyProperties;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Striped read-write locks over paths; a stripe held shared cannot be upgraded, so withLock on it fails fast
 @Component
 public class FileConcurrencyManager {
-    private final Map<Path, ReentrantLock> lockMap = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock[] stripes;
+    private final int mask;
+    private final Mode exclusive;
+    private final Mode shared;
+
+    public FileConcurrencyManager(ConcurrencyProperties properties, MeterRegistry meterRegistry) {
+        int count = 1;
+        while (count < properties.getLockStripes()) {
+            count <<= 1;
+        }
+        this.stripes = new ReentrantReadWriteLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+        this.mask = count - 1;
+        this.exclusive = new Mode("exclusive", meterRegistry);
+        this.shared = new Mode("shared", meterRegistry);
+    }
 
     public void withLock(Path path, Runnable action) {
-        ReentrantLock lock = lockMap.computeIfAbsent(path.toAbsolutePath().normalize(), p -> new ReentrantLock());
-        lock.lock();
+        int stripe = stripeIndex(path);
+        requireNotHeldShared(stripe);
+        long acquired = acquire(stripe, stripes[stripe].writeLock(), exclusive);
         try {
             action.run();
         } finally {
-            lock.unlock();
+            stripes[stripe].writeLock().unlock();
+            exclusive.hold.record(System.nanoTime() - acquired, TimeUnit.NANOSECONDS);
+        }
+    }
 
-            if (!lock.isLocked()) {
-                lockMap.remove(path, lock);
+    // Takes the exclusive locks of every stripe the paths map to in ascending stripe order, so callers locking
+    // overlapping sets cannot deadlock. The locks are reentrant: the action may still call withLock on these paths
+    public void withLocks(Collection<Path> paths, Runnable action) {
+        int[] order = paths.stream().mapToInt(this::stripeIndex).distinct().sorted().toArray();
+        for (int stripe : order) {
+            requireNotHeldShared(stripe);
+        }
+        long[] acquired = new long[order.length];
+        int locked = 0;
+        try {
+            for (; locked < order.length; locked++) {
+                acquired[locked] = acquire(order[locked], stripes[order[locked]].writeLock(), exclusive);
+            }
+            action.run();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[order[i]].writeLock().unlock();
+                exclusive.hold.record(System.nanoTime() - acquired[i], TimeUnit.NANOSECONDS);
             }
         }
     }
-}
\ No newline at end of file
+
+    public <T> T withSharedLock(Path path, Supplier<T> action) {
+        int stripe = stripeIndex(path);
+        long acquired = acquire(stripe, stripes[stripe].readLock(), shared);
+        try {
+            return action.get();
+        } finally {
+            stripes[stripe].readLock().unlock();
+            shared.hold.record(System.nanoTime() - acquired, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    public int stripeIndex(Path path) {
+        int hash = path.toAbsolutePath().normalize().hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    // Returns when the lock was acquired; an acquisition that had to wait records how many threads were queued
+    private long acquire(int stripe, Lock lock, Mode mode) {
+        long start = System.nanoTime();
+        if (!lock.tryLock()) {
+            mode.contention.record(stripes[stripe].getQueueLength() + 1);
+            lock.lock();
+        }
+        long acquired = System.nanoTime();
+        mode.wait.record(acquired - start, TimeUnit.NANOSECONDS);
+        return acquired;
+    }
+
+    private void requireNotHeldShared(int stripe) {
+        ReentrantReadWriteLock lock = stripes[stripe];
+        if (lock.getReadHoldCount() > 0 && !lock.isWriteLockedByCurrentThread()) {
+            throw new IllegalStateException("Lock stripe " + stripe + " is held shared and cannot be upgraded");
+        }
+    }
+
+    private static final class Mode {
+        private final Timer wait;
+        private final Timer hold;
+        private final DistributionSummary contention;
+
+        Mode(String name, MeterRegistry meterRegistry) {
+            this.wait = Timer.builder("fileservice.lock.wait").tag("mode", name).register(meterRegistry);
+            this.hold = Timer.builder("fileservice.lock.hold").tag("mode", name).register(meterRegistry);
+            this.contention = DistributionSummary.builder("fileservice.lock.contention")
+                                                 .tag("mode", name)
+                                                 .serviceLevelObjectives(1, 2, 4, 8, 16, 32, 64)
+                                                 .register(meterRegistry);
+        }
+    }
+}
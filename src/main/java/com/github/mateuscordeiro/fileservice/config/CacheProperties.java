@@ -0,0 +1,29 @@
+package com.github.mateuscordeiro.fileservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties(prefix = "fileservice.cache")
+@Component
+public class CacheProperties {
+    private Metadata metadata = new Metadata();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Metadata {
+        private boolean enabled = false;
+        private int maxEntries = 10_000;
+        private Duration ttl = Duration.ofSeconds(5);
+        private boolean watch = true;
+    }
+}
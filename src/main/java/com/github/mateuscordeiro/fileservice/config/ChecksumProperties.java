@@ -0,0 +1,22 @@
+package com.github.mateuscordeiro.fileservice.config;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties(prefix = "fileservice.checksum")
+@Component
+public class ChecksumProperties {
+    private DataSize blockSize = DataSize.ofMegabytes(4);
+    private Path sidecarDir = Path.of(System.getProperty("java.io.tmpdir"), "fileservice-checksums");
+    private int trackedFiles = 10000;
+}
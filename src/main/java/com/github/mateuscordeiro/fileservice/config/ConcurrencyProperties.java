@@ -0,0 +1,18 @@
+package com.github.mateuscordeiro.fileservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties(prefix = "fileservice.concurrency")
+@Component
+public class ConcurrencyProperties {
+    // Rounded up to a power of two
+    private int lockStripes = 1024;
+}
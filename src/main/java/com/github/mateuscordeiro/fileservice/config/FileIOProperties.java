@@ -0,0 +1,104 @@
+package com.github.mateuscordeiro.fileservice.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties(prefix = "fileservice.io")
+@Component
+public class FileIOProperties {
+    private Read read = new Read();
+    private Mmap mmap = new Mmap();
+    private ChannelCache channelCache = new ChannelCache();
+    private Tree tree = new Tree();
+    private Cas cas = new Cas();
+    private Journal journal = new Journal();
+    private Watch watch = new Watch();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Read {
+        private DataSize chunkSize = DataSize.ofKilobytes(64);
+        private int pooledBuffers = 32;
+        // In total over all ranges of a request
+        private DataSize maxLength = DataSize.ofMegabytes(16);
+        private int maxRanges = 1000;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mmap {
+        private boolean enabled = true;
+        private DataSize threshold = DataSize.ofMegabytes(64);
+        private DataSize windowSize = DataSize.ofMegabytes(64);
+        private int maxWindows = 64;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChannelCache {
+        // 0 disables the cache
+        private int maxOpen = 256;
+        private Duration idleTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tree {
+        // Mostly blocked on I/O, so it may exceed the core count
+        private int parallelism = 8;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cas {
+        // dir must be on the root's volume, since copies are hard links
+        private boolean enabled = false;
+        private Path dir;
+        private DataSize minSize = DataSize.ofMegabytes(1);
+        private Duration sweepInterval = Duration.ofMinutes(10);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Journal {
+        private boolean enabled = false;
+        private Path dir;
+        private Durability durability = Durability.GROUP_COMMIT;
+        // PERIODIC only
+        private Duration syncInterval = Duration.ofMillis(100);
+        // A checkpoint also runs when the current segment grows past this size
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        private Duration checkpointInterval = Duration.ofSeconds(30);
+
+        public enum Durability {
+            NONE,
+            PERIODIC,
+            GROUP_COMMIT
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Watch {
+        // One watch key per directory; past this the watcher stops and subscribers fall back to their polling
+        private int maxDirectories = 10_000;
+    }
+}
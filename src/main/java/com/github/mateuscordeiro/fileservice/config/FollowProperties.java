@@ -0,0 +1,23 @@
+package com.github.mateuscordeiro.fileservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties(prefix = "fileservice.follow")
+@Component
+public class FollowProperties {
+    private Duration maxWait = Duration.ofSeconds(30);
+    // Beyond this many waiters, follow returns at once like read
+    private int maxWaiters = 100;
+    private boolean watch = true;
+    private Duration pollInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,19 @@
+package com.github.mateuscordeiro.fileservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties(prefix = "fileservice.index")
+@Component
+public class IndexProperties {
+    private boolean enabled = false;
+    private int parallelism = 8;
+    private boolean watch = true;
+}
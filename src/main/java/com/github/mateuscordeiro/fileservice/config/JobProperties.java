@@ -0,0 +1,22 @@
+package com.github.mateuscordeiro.fileservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties(prefix = "fileservice.jobs")
+@Component
+public class JobProperties {
+    private int threads = 4;
+    private int queueCapacity = 100;
+    // How long the status of a finished job stays available
+    private Duration retention = Duration.ofMinutes(15);
+}
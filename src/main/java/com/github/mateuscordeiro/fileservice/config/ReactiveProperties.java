@@ -0,0 +1,22 @@
+package com.github.mateuscordeiro.fileservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Only used when the reactive transport is active (spring.main.web-application-type: reactive)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties(prefix = "fileservice.reactive")
+@Component
+public class ReactiveProperties {
+    private int ioThreads = 64;
+    private int queuedTasks = 10_000;
+    private DataSize chunkSize = DataSize.ofKilobytes(64);
+    private DataSize maxRequestSize = DataSize.ofMegabytes(32);
+}
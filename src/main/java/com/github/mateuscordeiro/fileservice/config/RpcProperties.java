@@ -0,0 +1,66 @@
+package com.github.mateuscordeiro.fileservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties(prefix = "fileservice.rpc")
+@Component
+public class RpcProperties {
+    private Batch batch = new Batch();
+    private Walk walk = new Walk();
+    private Delta delta = new Delta();
+    private ExecuteBatch executeBatch = new ExecuteBatch();
+    private Compression compression = new Compression();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Batch {
+        private boolean parallel = true;
+        private int threads = 8;
+        private int queueCapacity = 1000;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Walk {
+        // Cap for walks answered inside batches; single walk requests are streamed
+        private long maxBufferedEntries = 10_000;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Delta {
+        private DataSize defaultBlockSize = DataSize.ofKilobytes(256);
+        private DataSize maxBlockSize = DataSize.ofMegabytes(64);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ExecuteBatch {
+        private int threads = 8;
+        private int queueCapacity = 1000;
+        private int maxOperations = 1000;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Compression {
+        private boolean enabled = true;
+        private DataSize minSize = DataSize.ofKilobytes(1);
+        // 1 (fastest) to 9 (smallest)
+        private int level = 6;
+    }
+}
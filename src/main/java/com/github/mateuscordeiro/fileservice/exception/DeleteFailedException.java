@@ -0,0 +1,22 @@
+package com.github.mateuscordeiro.fileservice.exception;
+
+import java.util.Map;
+
+public class DeleteFailedException extends RuntimeException {
+    private final Map<String, String> failures;
+    private final long failureCount;
+
+    public DeleteFailedException(String path, Map<String, String> failures, long failureCount) {
+        super("Failed to delete " + failureCount + " entries under: " + path);
+        this.failures = failures;
+        this.failureCount = failureCount;
+    }
+
+    public Map<String, String> getFailures() {
+        return failures;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.mateuscordeiro.fileservice.exception;
+
+public class JobNotFoundException extends RuntimeException {
+    public JobNotFoundException(String id) {
+        super("Job not found: " + id);
+    }
+}
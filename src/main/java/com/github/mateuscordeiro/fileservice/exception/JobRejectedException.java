@@ -0,0 +1,7 @@
+package com.github.mateuscordeiro.fileservice.exception;
+
+public class JobRejectedException extends RuntimeException {
+    public JobRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.mateuscordeiro.fileservice.exception;
+
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String path, String expected, String actual) {
+        super("File changed since version " + expected + " (now " + actual + "): " + path);
+    }
+}
@@ -0,0 +1,462 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties.Journal.Durability;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+// Write-ahead log of appends and the offsets they land at; checkpoints force the files and drop covered segments
+@Slf4j
+class AppendJournal {
+    private static final byte APPEND = 1;
+    private static final byte FORGET = 2;
+    // Body length and CRC32C of the body, then the body: type, offset, path length, path, data
+    private static final int FRAME_HEADER = 8;
+    private static final int BODY_HEADER = 13;
+
+    private final Path dir;
+    private final Durability durability;
+    private final long segmentSize;
+    private final Timer syncTimer;
+    private final ScheduledExecutorService scheduler;
+    private final Object monitor = new Object();
+    // Serialises checkpoints with each other and with moves
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+
+    // Guarded by monitor
+    private FileChannel segment;
+    private long segmentId;
+    private long written;
+    private long synced;
+    private boolean syncing;
+    // Recorded but not yet written to their files
+    private int inFlight;
+    private int draining;
+    private Set<Path> dirty = new HashSet<>();
+    private boolean checkpointScheduled;
+
+    interface ReplayTarget {
+        // Appends the bytes to the file and forces it
+        void append(Path path, ByteBuffer data) throws IOException;
+    }
+
+    interface IOAction {
+        void run() throws IOException;
+    }
+
+    record Ticket(long segment, long end) {
+    }
+
+    AppendJournal(Path dir, Durability durability, Duration syncInterval, long segmentSize,
+                  Duration checkpointInterval, Timer syncTimer, ReplayTarget target) throws IOException {
+        this.dir = dir.toAbsolutePath().normalize();
+        this.durability = durability;
+        this.segmentSize = segmentSize;
+        this.syncTimer = syncTimer;
+        Files.createDirectories(this.dir);
+
+        List<Path> segments = segments();
+        replay(segments, target);
+        this.segmentId = segments.isEmpty() ? 0 : idOf(segments.get(segments.size() - 1)) + 1;
+        this.segment = open(segmentId);
+        for (Path replayed : segments) {
+            Files.delete(replayed);
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "append-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkpointMillis = checkpointInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkpointQuietly, checkpointMillis, checkpointMillis,
+                                         TimeUnit.MILLISECONDS);
+        if (durability == Durability.PERIODIC) {
+            long syncMillis = syncInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::syncQuietly, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    boolean contains(Path path) {
+        return path.toAbsolutePath().normalize().startsWith(dir);
+    }
+
+    // Called with the file's write lock held; the ticket goes to applied() whether the write succeeded or not
+    Ticket record(Path path, long offset, ByteBuffer[] data) throws IOException {
+        ByteBuffer[] frame = frame(APPEND, path, offset, data);
+        synchronized (monitor) {
+            write(frame);
+            dirty.add(path);
+            inFlight++;
+            if (segment.position() >= segmentSize && !checkpointScheduled) {
+                checkpointScheduled = true;
+                scheduler.execute(this::checkpointQuietly);
+            }
+            return new Ticket(segmentId, written);
+        }
+    }
+
+    void applied(Ticket ticket) {
+        synchronized (monitor) {
+            if (ticket.segment() == segmentId) {
+                inFlight--;
+            } else {
+                draining--;
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    // Waits for the journal fsync in group-commit mode; concurrent callers share it
+    void awaitDurable(Ticket ticket) throws IOException {
+        if (durability == Durability.GROUP_COMMIT) {
+            syncTo(ticket.end());
+        }
+    }
+
+    // Earlier appends to path, or to anything below it, are not replayed anymore
+    void forget(Path path) throws IOException {
+        ByteBuffer[] frame = frame(FORGET, path, 0, new ByteBuffer[0]);
+        synchronized (monitor) {
+            write(frame);
+        }
+    }
+
+    void checkpoint() throws IOException {
+        checkpointLock.lock();
+        try {
+            forceAndDrop();
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    // Serialised with checkpoints, so pending files are forced under their new name
+    void move(Path source, Path destination, IOAction move) throws IOException {
+        checkpointLock.lock();
+        try {
+            move.run();
+            synchronized (monitor) {
+                Set<Path> moved = new HashSet<>();
+                for (Iterator<Path> it = dirty.iterator(); it.hasNext(); ) {
+                    Path file = it.next();
+                    if (file.startsWith(source)) {
+                        it.remove();
+                        moved.add(destination.resolve(source.relativize(file)));
+                    }
+                }
+                dirty.addAll(moved);
+            }
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    private void forceAndDrop() throws IOException {
+        Set<Path> files;
+        long keepFrom;
+        synchronized (monitor) {
+            checkpointScheduled = false;
+            if (dirty.isEmpty() && segment.position() == 0) {
+                return;
+            }
+            rotate();
+            files = dirty;
+            dirty = new HashSet<>();
+            keepFrom = segmentId;
+            draining += inFlight;
+            inFlight = 0;
+            // Appends still writing to these files would not be covered by forcing them now
+            while (draining > 0) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dirty.addAll(files);
+                    throw new InterruptedIOException("Interrupted while waiting for journaled appends");
+                }
+            }
+        }
+
+        List<Path> failed = new ArrayList<>();
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                channel.force(false);
+            } catch (NoSuchFileException e) {
+                // Deleted since; service moves are tracked by move()
+            } catch (IOException e) {
+                log.warn("Failed to force {}, keeping its journal segments: {}", file, e.getMessage());
+                failed.add(file);
+            }
+        }
+        if (!failed.isEmpty()) {
+            synchronized (monitor) {
+                dirty.addAll(failed);
+            }
+            return;
+        }
+        for (Path old : segments()) {
+            if (idOf(old) < keepFrom) {
+                Files.deleteIfExists(old);
+            }
+        }
+    }
+
+    void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            checkpoint();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Final journal checkpoint failed, segments are replayed on the next start: {}", e.getMessage());
+        }
+        synchronized (monitor) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.warn("Failed to close journal segment: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void syncTo(long end) throws IOException {
+        while (true) {
+            long target;
+            FileChannel channel;
+            synchronized (monitor) {
+                while (syncing && synced < end) {
+                    try {
+                        monitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for the journal to sync");
+                    }
+                }
+                if (synced >= end) {
+                    return;
+                }
+                // Syncs for everyone waiting behind it too
+                syncing = true;
+                target = written;
+                channel = segment;
+            }
+            IOException failure = null;
+            long start = System.nanoTime();
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Rotated out meanwhile; the rotation forced it
+            } catch (IOException e) {
+                failure = e;
+            }
+            syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            synchronized (monitor) {
+                syncing = false;
+                if (failure == null) {
+                    synced = Math.max(synced, target);
+                }
+                monitor.notifyAll();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        long end;
+        synchronized (monitor) {
+            end = written;
+        }
+        try {
+            syncTo(end);
+        } catch (IOException e) {
+            log.warn("Periodic journal sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            log.warn("Journal checkpoint failed: {}", e.getMessage());
+        }
+    }
+
+    // Caller holds monitor
+    private void write(ByteBuffer[] frame) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : frame) {
+            remaining += buffer.remaining();
+        }
+        long done = 0;
+        while (done < remaining) {
+            done += segment.write(frame);
+        }
+        written += remaining;
+    }
+
+    // Caller holds monitor
+    private void rotate() throws IOException {
+        if (durability != Durability.NONE) {
+            segment.force(false);
+        }
+        segment.close();
+        synced = written;
+        monitor.notifyAll();
+        segment = open(++segmentId);
+    }
+
+    private FileChannel open(long id) throws IOException {
+        return FileChannel.open(dir.resolve(String.format("segment-%020d.log", id)), StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "segment-*.log")) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private static long idOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("segment-".length(), name.length() - ".log".length()));
+    }
+
+    private static ByteBuffer[] frame(byte type, Path path, long offset, ByteBuffer[] data) {
+        byte[] pathBytes = path.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(BODY_HEADER + pathBytes.length);
+        body.put(type).putLong(offset).putInt(pathBytes.length).put(pathBytes).flip();
+
+        ByteBuffer[] frame = new ByteBuffer[data.length + 2];
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        long length = body.remaining();
+        for (int i = 0; i < data.length; i++) {
+            // The file write that follows consumes the caller's buffers
+            frame[i + 2] = data[i].duplicate();
+            crc.update(data[i].duplicate());
+            length += data[i].remaining();
+        }
+        frame[0] = ByteBuffer.allocate(FRAME_HEADER).putInt(Math.toIntExact(length)).putInt((int) crc.getValue())
+                             .flip();
+        frame[1] = body;
+        return frame;
+    }
+
+    private record Entry(byte type, Path path, long offset, ByteBuffer data) {
+    }
+
+    private void replay(List<Path> segments, ReplayTarget target) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : segments) {
+            read(segment, entries);
+        }
+
+        // Walks backwards, so each forget drops the appends before it
+        Set<Path> forgotten = new LinkedHashSet<>();
+        List<Entry> appends = new ArrayList<>();
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Entry entry = entries.get(i);
+            if (entry.type() == FORGET) {
+                forgotten.add(entry.path());
+            } else if (forgotten.stream().noneMatch(entry.path()::startsWith)) {
+                appends.add(entry);
+            }
+        }
+
+        int replayed = 0;
+        for (int i = appends.size() - 1; i >= 0; i--) {
+            if (apply(appends.get(i), target)) {
+                replayed++;
+            }
+        }
+        if (!entries.isEmpty()) {
+            log.info("Replayed {} of {} journaled appends from {}", replayed, appends.size(), dir);
+        }
+    }
+
+    private static boolean apply(Entry entry, ReplayTarget target) throws IOException {
+        long size;
+        try {
+            size = Files.size(entry.path());
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (size < entry.offset()) {
+            log.warn("Skipping journaled append to {} at {}: the file is only {} bytes", entry.path(),
+                     entry.offset(), size);
+            return false;
+        }
+        long present = size - entry.offset();
+        ByteBuffer data = entry.data();
+        if (present >= data.remaining()) {
+            return false;
+        }
+        data.position(data.position() + (int) present);
+        target.append(entry.path(), data);
+        return true;
+    }
+
+    private static void read(Path segment, List<Entry> entries) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        while (buffer.remaining() >= FRAME_HEADER) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < BODY_HEADER || length > buffer.remaining()) {
+                log.warn("Journal segment {} ends with a torn record at {}", segment, start);
+                return;
+            }
+            ByteBuffer body = buffer.slice(buffer.position(), length);
+            CRC32C crc = new CRC32C();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Journal segment {} has a corrupt record at {}, ignoring the rest", segment, start);
+                return;
+            }
+            buffer.position(buffer.position() + length);
+            try {
+                byte type = body.get();
+                long offset = body.getLong();
+                byte[] path = new byte[body.getInt()];
+                body.get(path);
+                entries.add(new Entry(type, Path.of(new String(path, StandardCharsets.UTF_8)), offset,
+                                      body.slice()));
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+                log.warn("Journal segment {} has a malformed record at {}, ignoring the rest", segment, start);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+// Checksums of one fixed-size block of a file; the last block may be shorter
+public record BlockDigest(long offset, int length, int crc32c, byte[] sha256) {
+}
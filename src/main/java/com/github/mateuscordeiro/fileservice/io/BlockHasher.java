@@ -0,0 +1,88 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32C;
+
+// Hashes the blocks of a file in parallel on the tree pool, one task per block, each over its own read-only mapping
+class BlockHasher {
+    private final ForkJoinPool pool;
+
+    BlockHasher(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    private interface BlockFunction<T> {
+        T apply(long offset, ByteBuffer block);
+    }
+
+    // Blocks from firstBlock up to size; size is passed in so the result matches the caller's view of the file
+    List<BlockDigest> digest(Path path, long size, long blockSize, int firstBlock) throws IOException {
+        return hash(path, size, blockSize, firstBlock, (offset, block) -> {
+            CRC32C crc = new CRC32C();
+            crc.update(block.duplicate());
+            int length = block.remaining();
+            return new BlockDigest(offset, length, (int) crc.getValue(), sha256(block));
+        });
+    }
+
+    List<BlockSignature> signatures(Path path, long size, long blockSize) throws IOException {
+        return hash(path, size, blockSize, 0, (offset, block) -> {
+            int rolling = RollingChecksum.of(block).value();
+            int length = block.remaining();
+            return new BlockSignature(offset, length, rolling, sha256(block));
+        });
+    }
+
+    private <T> List<T> hash(Path path, long size, long blockSize, int firstBlock, BlockFunction<T> function)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<ForkJoinTask<T>> tasks = new ArrayList<>();
+            for (long offset = firstBlock * blockSize; offset < size; offset += blockSize) {
+                long blockOffset = offset;
+                int length = (int) Math.min(blockSize, size - offset);
+                tasks.add(ForkJoinTask.adapt(() -> function.apply(blockOffset, map(channel, blockOffset, length))));
+            }
+            List<T> results = new ArrayList<>(tasks.size());
+            if (tasks.isEmpty()) {
+                return results;
+            }
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            for (ForkJoinTask<T> task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long offset, int length) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] sha256(ByteBuffer block) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(block);
+            return sha256.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM ships SHA-256
+        }
+    }
+}
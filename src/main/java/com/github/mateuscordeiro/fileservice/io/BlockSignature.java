@@ -0,0 +1,5 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+// Weak rolling and strong checksums of one block, as used to compute a delta against the file
+public record BlockSignature(long offset, int length, int rolling, byte[] sha256) {
+}
@@ -0,0 +1,32 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+class BufferPool {
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> free;
+
+    BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        return buffer.clear();
+    }
+
+    void release(ByteBuffer buffer) {
+        // Buffers beyond the pool capacity are left to the GC
+        free.offer(buffer);
+    }
+
+    int bufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,8 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+public record ByteRange(long offset, long length) {
+    long end() {
+        long end = offset + length;
+        return end < 0 ? Long.MAX_VALUE : end;
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+class CharBufferPool {
+    private final int bufferSize;
+    private final BlockingQueue<CharBuffer> free;
+
+    CharBufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+    }
+
+    CharBuffer acquire() {
+        CharBuffer buffer = free.poll();
+        if (buffer == null) {
+            buffer = CharBuffer.allocate(bufferSize);
+        }
+        return buffer.clear();
+    }
+
+    void release(CharBuffer buffer) {
+        free.offer(buffer);
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+@FunctionalInterface
+public interface ChunkConsumer {
+    // The chunk is only valid for the duration of the call; its backing buffer is reused afterwards
+    void accept(ByteBuffer chunk) throws IOException;
+}
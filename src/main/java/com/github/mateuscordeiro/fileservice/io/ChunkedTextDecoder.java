@@ -0,0 +1,59 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+class ChunkedTextDecoder {
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                                                                 .onMalformedInput(CodingErrorAction.REPLACE)
+                                                                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    // Holds the leading bytes of a character split across two chunks
+    private final ByteBuffer carry = ByteBuffer.allocate(8);
+    // Decoded a chunk at a time into the caller's pooled buffer, then copied out
+    private final CharBuffer chars;
+    private final StringBuilder text;
+
+    ChunkedTextDecoder(int maxBytes, CharBuffer chars) {
+        this.chars = chars.clear();
+        // UTF-8 never decodes to more chars than it has bytes
+        this.text = new StringBuilder(maxBytes);
+    }
+
+    void decode(ByteBuffer chunk) {
+        while (carry.position() > 0 && chunk.hasRemaining()) {
+            carry.put(chunk.get());
+            carry.flip();
+            decode(carry, false);
+            carry.compact();
+        }
+        decode(chunk, false);
+        carry.put(chunk);
+    }
+
+    String finish() {
+        carry.flip();
+        decode(carry, true);
+        while (decoder.flush(chars).isOverflow()) {
+            drain();
+        }
+        drain();
+        return text.toString();
+    }
+
+    private void decode(ByteBuffer bytes, boolean endOfInput) {
+        CoderResult result;
+        do {
+            result = decoder.decode(bytes, chars, endOfInput);
+            drain();
+        } while (result.isOverflow());
+    }
+
+    private void drain() {
+        text.append(chars.array(), chars.arrayOffset(), chars.position());
+        chars.clear();
+    }
+}
@@ -0,0 +1,258 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Blobs named by SHA-256, hard linked by copies; a linked file must be detach()ed before it is modified in place
+@Slf4j
+class ContentStore implements FileCopier {
+    private static final int HASH_CHUNK = 1024 * 1024;
+    private static final int MAX_KNOWN = 10_000;
+
+    private final Path dir;
+    private final long minSize;
+    private final long sweepIntervalNanos;
+    private final Executor sweeper;
+    private final AtomicLong nextSweep;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    // File key -> blob, valid while size and mtime match
+    private final Map<Object, Known> known = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Known> eldest) {
+            return size() > MAX_KNOWN;
+        }
+    };
+
+    private record Known(long size, FileTime modified, Path blob) {
+    }
+
+    ContentStore(Path dir, long minSize, Duration sweepInterval, Executor sweeper) throws IOException {
+        this.dir = dir.toAbsolutePath().normalize();
+        this.minSize = minSize;
+        this.sweepIntervalNanos = sweepInterval.toNanos();
+        this.sweeper = sweeper;
+        this.nextSweep = new AtomicLong(System.nanoTime() + sweepIntervalNanos);
+        Files.createDirectories(this.dir);
+        if (!Files.getFileStore(this.dir).supportsFileAttributeView("unix")) {
+            throw new IllegalStateException("Content store needs a file system with hard link counts: " + dir);
+        }
+    }
+
+    boolean contains(Path path) {
+        return path.toAbsolutePath().normalize().startsWith(dir);
+    }
+
+    @Override
+    public void copy(Path source, Path target, OperationProgress progress) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class);
+        if (attrs.size() < minSize) {
+            copyBytes(source, target, progress);
+            return;
+        }
+        progress.checkCancelled(source);
+        try {
+            Path blob = knownBlob(attrs);
+            if (blob == null || !link(blob, target)) {
+                // A fresh blob may be swept before the target is linked to it
+                do {
+                    blob = store(source, attrs, progress);
+                    if (blob == null) {
+                        copyBytes(source, target, progress);
+                        return;
+                    }
+                } while (!link(blob, target));
+            }
+        } catch (FileSystemException e) {
+            if (e instanceof NoSuchFileException) {
+                throw e;
+            }
+            // e.g. the target is on another file system than the store
+            log.warn("Falling back to a byte copy of {}: {}", source, e.getMessage());
+            copyBytes(source, target, progress);
+            return;
+        }
+        progress.addBytes(attrs.size());
+        progress.addFile();
+        maybeSweep();
+    }
+
+    // The caller must hold the file's write lock
+    boolean detach(Path path) throws IOException {
+        if (!isShared(path)) {
+            return false;
+        }
+        Path temp = path.resolveSibling("." + path.getFileName() + ".detach-" + UUID.randomUUID());
+        try {
+            Files.copy(path, temp);
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    // A plain copy truncates and rewrites the target in place, so a shared target is unlinked first
+    private static void copyBytes(Path source, Path target, OperationProgress progress) throws IOException {
+        if (isShared(target)) {
+            Files.delete(target);
+        }
+        TreeCopier.copyFile(source, target, progress);
+    }
+
+    private static boolean isShared(Path path) throws IOException {
+        try {
+            return (Integer) Files.getAttribute(path, "unix:nlink") > 1;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private Path knownBlob(BasicFileAttributes attrs) {
+        Known entry;
+        synchronized (known) {
+            entry = known.get(attrs.fileKey());
+        }
+        if (entry == null || entry.size() != attrs.size() || !entry.modified().equals(attrs.lastModifiedTime())) {
+            return null;
+        }
+        return entry.blob();
+    }
+
+    // New content is stored by linking the source itself as its blob, so source and copies share one inode.
+    // Returns null when the source changed while it was hashed.
+    private Path store(Path source, BasicFileAttributes attrs, OperationProgress progress) throws IOException {
+        Path blob = blobPath(hash(source, progress));
+        if (!Files.exists(blob)) {
+            Files.createDirectories(blob.getParent());
+            try {
+                Files.createLink(blob, source);
+                if (!unchanged(attrs, Files.readAttributes(blob, BasicFileAttributes.class))) {
+                    Files.deleteIfExists(blob);
+                    return null;
+                }
+            } catch (FileAlreadyExistsException e) {
+                // stored meanwhile by a copy of the same content
+            }
+        }
+        remember(attrs, blob);
+        remember(Files.readAttributes(blob, BasicFileAttributes.class), blob);
+        return blob;
+    }
+
+    private static boolean unchanged(BasicFileAttributes before, BasicFileAttributes after) {
+        return before.size() == after.size() && before.lastModifiedTime().equals(after.lastModifiedTime())
+                && Objects.equals(before.fileKey(), after.fileKey());
+    }
+
+    private void remember(BasicFileAttributes attrs, Path blob) {
+        if (attrs.fileKey() == null) {
+            return;
+        }
+        synchronized (known) {
+            known.put(attrs.fileKey(), new Known(attrs.size(), attrs.lastModifiedTime(), blob));
+        }
+    }
+
+    // Through a temporary name, so an existing target is replaced atomically
+    private boolean link(Path blob, Path target) throws IOException {
+        Path temp = target.resolveSibling("." + target.getFileName() + ".link-" + UUID.randomUUID());
+        try {
+            Files.createLink(temp, blob);
+        } catch (NoSuchFileException e) {
+            if (Files.exists(blob)) {
+                throw e; // the target's directory is missing
+            }
+            return false; // swept meanwhile
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    private static byte[] hash(Path source, OperationProgress progress) throws IOException {
+        MessageDigest sha256 = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(HASH_CHUNK);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (in.read(buffer.clear()) > 0) {
+                progress.checkCancelled(source);
+                sha256.update(buffer.flip());
+            }
+        }
+        return sha256.digest();
+    }
+
+    private Path blobPath(byte[] digest) {
+        String hex = HexFormat.of().formatHex(digest);
+        return dir.resolve(hex.substring(0, 2)).resolve(hex);
+    }
+
+    private void maybeSweep() {
+        long now = System.nanoTime();
+        long due = nextSweep.get();
+        if (now - due >= 0 && nextSweep.compareAndSet(due, now + sweepIntervalNanos)
+                && sweeping.compareAndSet(false, true)) {
+            sweeper.execute(() -> {
+                try {
+                    sweep();
+                } finally {
+                    sweeping.set(false);
+                }
+            });
+        }
+    }
+
+    // Removes blobs no file links to any more
+    void sweep() {
+        try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(dir)) {
+            for (Path prefix : prefixes) {
+                if (!Files.isDirectory(prefix)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(prefix)) {
+                    for (Path entry : entries) {
+                        if ((Integer) Files.getAttribute(entry, "unix:nlink") <= 1) {
+                            Files.deleteIfExists(entry);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Content store sweep of {} failed", dir, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM ships SHA-256
+        }
+    }
+}
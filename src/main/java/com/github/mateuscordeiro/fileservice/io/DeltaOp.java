@@ -0,0 +1,16 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+// One step of a delta: either a run of blocks copied from the base file or literal bytes
+public record DeltaOp(long block, int count, byte[] literal) {
+    public static DeltaOp blocks(long block, int count) {
+        return new DeltaOp(block, count, null);
+    }
+
+    public static DeltaOp literal(byte[] literal) {
+        return new DeltaOp(-1, 0, literal);
+    }
+
+    public boolean isLiteral() {
+        return literal != null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Block runs are copied from the base with transferTo, so unchanged data never passes through the heap
+class DeltaWriter {
+    private DeltaWriter() {
+    }
+
+    static long write(Path base, long baseSize, long blockSize, List<DeltaOp> ops, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(base, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+            long written = 0;
+            for (DeltaOp op : ops) {
+                if (op.isLiteral()) {
+                    ByteBuffer buffer = ByteBuffer.wrap(op.literal());
+                    while (buffer.hasRemaining()) {
+                        written += out.write(buffer, written);
+                    }
+                    continue;
+                }
+                long offset = op.block() * blockSize;
+                if (op.block() < 0 || op.count() <= 0 || offset >= baseSize) {
+                    throw new IllegalArgumentException("Block out of range: " + op.block());
+                }
+                long length = Math.min(op.count() * blockSize, baseSize - offset);
+                long end = offset + length;
+                while (offset < end) {
+                    long transferred = in.transferTo(offset, end - offset, out.position(written));
+                    if (transferred <= 0) {
+                        throw new IOException("Base file shrank while applying delta: " + base);
+                    }
+                    offset += transferred;
+                    written += transferred;
+                }
+            }
+            out.force(false);
+            return written;
+        }
+    }
+}
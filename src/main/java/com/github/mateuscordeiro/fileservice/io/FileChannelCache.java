@@ -0,0 +1,169 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class FileChannelCache {
+    enum Mode {
+        READ(StandardOpenOption.READ),
+        APPEND(StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        private final StandardOpenOption[] options;
+
+        Mode(StandardOpenOption... options) {
+            this.options = options;
+        }
+    }
+
+    private final int maxOpen;
+    private final long idleTimeoutNanos;
+    private final long sweepIntervalNanos;
+    // Access-ordered, so the least recently acquired handles come first
+    private final LinkedHashMap<Key, Handle> handles = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation;
+    private long nextSweep;
+
+    FileChannelCache(int maxOpen, Duration idleTimeout) {
+        this.maxOpen = maxOpen;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.sweepIntervalNanos = Math.min(idleTimeoutNanos, Duration.ofSeconds(1).toNanos());
+        this.nextSweep = System.nanoTime();
+    }
+
+    Handle acquire(Path path, Mode mode) throws IOException {
+        Key key = new Key(path, mode);
+        long openedAtGeneration;
+        synchronized (this) {
+            sweepIdle();
+            Handle handle = handles.get(key);
+            if (handle != null) {
+                handle.refCount++;
+                return handle;
+            }
+            openedAtGeneration = generation;
+        }
+
+        FileChannel channel = FileChannel.open(path, mode.options);
+        synchronized (this) {
+            Handle handle = handles.get(key);
+            if (handle != null) {
+                closeQuietly(channel);
+                handle.refCount++;
+                return handle;
+            }
+            handle = new Handle(channel);
+            handle.refCount = 1;
+            // An invalidation raced with the open, so the channel may point at a replaced file: use it once only
+            if (maxOpen <= 0 || openedAtGeneration != generation) {
+                handle.evicted = true;
+                return handle;
+            }
+            handles.put(key, handle);
+            evictOverflow();
+            return handle;
+        }
+    }
+
+    synchronized void invalidate(Path path) {
+        generation++;
+        Iterator<Map.Entry<Key, Handle>> iterator = handles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Handle> entry = iterator.next();
+            if (entry.getKey().path().startsWith(path)) {
+                iterator.remove();
+                evict(entry.getValue());
+            }
+        }
+    }
+
+    synchronized void closeAll() {
+        handles.values().forEach(this::evict);
+        handles.clear();
+    }
+
+    synchronized int size() {
+        return handles.size();
+    }
+
+    private synchronized void release(Handle handle) {
+        handle.refCount--;
+        handle.lastReleased = System.nanoTime();
+        if (handle.evicted && handle.refCount == 0) {
+            closeQuietly(handle.channel);
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Handle> iterator = handles.values().iterator();
+        while (handles.size() > maxOpen && iterator.hasNext()) {
+            Handle handle = iterator.next();
+            iterator.remove();
+            evict(handle);
+        }
+    }
+
+    private void sweepIdle() {
+        long now = System.nanoTime();
+        if (now - nextSweep < 0) {
+            return;
+        }
+        nextSweep = now + sweepIntervalNanos;
+
+        Iterator<Handle> iterator = handles.values().iterator();
+        while (iterator.hasNext()) {
+            Handle handle = iterator.next();
+            if (handle.refCount > 0) {
+                continue;
+            }
+            if (now - handle.lastReleased < idleTimeoutNanos) {
+                break;
+            }
+            iterator.remove();
+            evict(handle);
+        }
+    }
+
+    // A handle in use is only closed by its last release
+    private void evict(Handle handle) {
+        handle.evicted = true;
+        if (handle.refCount == 0) {
+            closeQuietly(handle.channel);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    class Handle implements AutoCloseable {
+        private final FileChannel channel;
+        private int refCount;
+        private boolean evicted;
+        private long lastReleased = System.nanoTime();
+
+        private Handle(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        FileChannel channel() {
+            return channel;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+
+    private record Key(Path path, Mode mode) {
+    }
+}
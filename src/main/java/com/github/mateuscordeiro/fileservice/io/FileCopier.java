@@ -0,0 +1,9 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@FunctionalInterface
+interface FileCopier {
+    void copy(Path source, Path target, OperationProgress progress) throws IOException;
+}
@@ -1,7 +1,13 @@
 package com.github.mateuscordeiro.fileservice.io;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.stream.Stream;
 
 public interface FileIOManager {
@@ -11,21 +17,53 @@ public interface FileIOManager {
 
     String read(Path path, long offset, int length) throws IOException;
 
+    long read(Path path, long offset, long length, ChunkConsumer consumer) throws IOException;
+
+    List<ByteBuffer> readRanges(Path path, List<ByteRange> ranges) throws IOException;
+
+    long transferTo(Path path, long offset, long length, WritableByteChannel target) throws IOException;
+
     void writeString(Path path, String data) throws IOException;
 
+    void append(Path path, ByteBuffer[] buffers) throws IOException;
+
     void deleteRecursively(Path path) throws IOException;
 
+    void deleteRecursively(Path path, OperationProgress progress) throws IOException;
+
     void copy(Path source, Path destination) throws IOException;
 
+    void copy(Path source, Path destination, OperationProgress progress) throws IOException;
+
     void move(Path source, Path destination) throws IOException;
 
     boolean exists(Path path);
 
+    // True for storage the manager keeps under the root for itself, e.g. the content store's blobs
+    boolean isInternal(Path path);
+
     boolean isDirectory(Path path);
 
     void copyDirectory(Path source, Path destination) throws IOException;
 
+    void copyDirectory(Path source, Path destination, OperationProgress progress) throws IOException;
+
     boolean isEmptyDirectory(Path destinationFile) throws IOException;
 
     Stream<Path> listDirectory(Path path) throws IOException;
+
+    BasicFileAttributes readAttributes(Path path) throws IOException;
+
+    <T> List<T> listDirectory(Path path, BiFunction<Path, BasicFileAttributes, T> mapper) throws IOException;
+
+    List<BlockDigest> digestBlocks(Path path, long size, long blockSize, int firstBlock) throws IOException;
+
+    List<BlockSignature> blockSignatures(Path path, long size, long blockSize) throws IOException;
+
+    long writeDelta(Path base, long baseSize, long blockSize, List<DeltaOp> ops, Path target) throws IOException;
+
+    void replace(Path source, Path target) throws IOException;
+
+    long walk(Path start, int maxDepth, BiPredicate<Path, BasicFileAttributes> prune, WalkVisitor visitor)
+            throws IOException;
 }
\ No newline at end of file
@@ -1,21 +1,133 @@
 package com.github.mateuscordeiro.fileservice.io;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.SeekableByteChannel;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.SecureDirectoryStream;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
 
 import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+import com.github.mateuscordeiro.fileservice.validation.ValidationUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Component
 public class FileIOManagerImpl implements FileIOManager {
+    private static final int DECODE_CHUNK_CHARS = 8192;
+
+    private final FileIOProperties.Read readProperties;
+    private final FileIOProperties.Mmap mmapProperties;
+    private final BufferPool bufferPool;
+    private final CharBufferPool charPool;
+    private final MappedFileCache mappedFileCache;
+    private final FileChannelCache channelCache;
+    private final ForkJoinPool treePool;
+    // Walks wait on their clients, so they get their own pool and cannot hold up copies, deletes or checksums
+    private final ForkJoinPool walkPool;
+    private final TreeCopier treeCopier;
+    private final TreeDeleter treeDeleter;
+    private final TreeWalker treeWalker;
+    private final BlockHasher blockHasher;
+    private final ContentStore contentStore;
+    private final AppendJournal journal;
+    private final IOMetrics metrics;
+
+    public FileIOManagerImpl(FileIOProperties properties, MeterRegistry meterRegistry) {
+        this.readProperties = properties.getRead();
+        this.mmapProperties = properties.getMmap();
+        this.bufferPool = new BufferPool((int) readProperties.getChunkSize().toBytes(),
+                                         readProperties.getPooledBuffers());
+        this.charPool = new CharBufferPool(DECODE_CHUNK_CHARS, readProperties.getPooledBuffers());
+        this.mappedFileCache = new MappedFileCache(mmapProperties.getWindowSize().toBytes(),
+                                                   mmapProperties.getMaxWindows());
+        this.channelCache = new FileChannelCache(properties.getChannelCache().getMaxOpen(),
+                                                 properties.getChannelCache().getIdleTimeout());
+        this.treePool = new ForkJoinPool(properties.getTree().getParallelism());
+        this.walkPool = new ForkJoinPool(properties.getTree().getParallelism());
+        this.contentStore = createContentStore(properties.getCas(), treePool);
+        this.treeCopier = new TreeCopier(treePool, contentStore != null ? contentStore : TreeCopier::copyFile,
+                                         this::isInternal);
+        this.treeDeleter = new TreeDeleter(treePool);
+        this.treeWalker = new TreeWalker(walkPool);
+        this.blockHasher = new BlockHasher(treePool);
+        this.metrics = new IOMetrics(meterRegistry);
+        this.journal = createJournal(properties.getJournal(), metrics);
+    }
+
+    private static ContentStore createContentStore(FileIOProperties.Cas cas, ForkJoinPool pool) {
+        if (!cas.isEnabled()) {
+            return null;
+        }
+        if (cas.getDir() == null) {
+            throw new IllegalStateException("fileservice.io.cas.dir is required when the content store is enabled");
+        }
+        try {
+            return new ContentStore(cas.getDir(), cas.getMinSize().toBytes(), cas.getSweepInterval(), pool);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open content store " + cas.getDir(), e);
+        }
+    }
+
+    private AppendJournal createJournal(FileIOProperties.Journal properties, IOMetrics metrics) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        if (properties.getDir() == null) {
+            throw new IllegalStateException("fileservice.io.journal.dir is required when the journal is enabled");
+        }
+        try {
+            return new AppendJournal(properties.getDir(), properties.getDurability(), properties.getSyncInterval(),
+                                     properties.getSegmentSize().toBytes(), properties.getCheckpointInterval(),
+                                     metrics.journalSync, this::appendReplayed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open append journal " + properties.getDir(), e);
+        }
+    }
+
+    // Runs before the manager serves anything, so it writes directly instead of through the channel cache
+    private void appendReplayed(Path path, ByteBuffer data) throws IOException {
+        if (contentStore != null) {
+            contentStore.detach(path);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+        treePool.shutdown();
+        walkPool.shutdown();
+        channelCache.closeAll();
+    }
+
     @Override
     public void createFile(Path path) throws IOException {
         Files.createFile(path);
@@ -28,44 +140,212 @@ public class FileIOManagerImpl implements FileIOManager {
 
     @Override
     public String read(Path path, long offset, int length) throws IOException {
-        try (SeekableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.READ)) {
-            channel.position(offset);
-            ByteBuffer buffer = ByteBuffer.allocate(length);
-            int bytesRead = channel.read(buffer);
-            if (bytesRead == -1) {
-                return new String(new byte[0], StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        try {
+            return readText(path, offset, length);
+        } finally {
+            record(metrics.read, start);
+        }
+    }
+
+    private String readText(Path path, long offset, int length) throws IOException {
+        ValidationUtils.requireAtMost(length, readProperties.getMaxLength().toBytes(), "length");
+
+        try (FileChannelCache.Handle handle = channelCache.acquire(path, FileChannelCache.Mode.READ)) {
+            FileChannel channel = handle.channel();
+            long size = channel.size();
+            long end = Math.min(size, offset + length);
+            if (offset >= end) {
+                return "";
+            }
+            CharBuffer chars = charPool.acquire();
+            try {
+                ChunkedTextDecoder decoder = new ChunkedTextDecoder((int) (end - offset), chars);
+                if (mmapProperties.isEnabled() && size >= mmapProperties.getThreshold().toBytes()) {
+                    mappedFileCache.read(path, channel, offset, end, size, decoder);
+                    metrics.bytesRead.increment(end - offset);
+                } else {
+                    metrics.bytesRead.increment(readChunks(channel, offset, end - offset, decoder::decode));
+                }
+                return decoder.finish();
+            } finally {
+                charPool.release(chars);
+            }
+        }
+    }
+
+    @Override
+    public long read(Path path, long offset, long length, ChunkConsumer consumer) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannelCache.Handle handle = channelCache.acquire(path, FileChannelCache.Mode.READ)) {
+            long read = readChunks(handle.channel(), offset, length, consumer);
+            metrics.bytesRead.increment(read);
+            return read;
+        } finally {
+            record(metrics.read, start);
+        }
+    }
+
+    @Override
+    public List<ByteBuffer> readRanges(Path path, List<ByteRange> ranges) throws IOException {
+        ValidationUtils.requireAtMost(ranges.size(), readProperties.getMaxRanges(), "ranges");
+        long start = System.nanoTime();
+        try (FileChannelCache.Handle handle = channelCache.acquire(path, FileChannelCache.Mode.READ)) {
+            List<ByteBuffer> buffers = RangeReader.read(handle.channel(), ranges,
+                                                        readProperties.getMaxLength().toBytes());
+            metrics.bytesRead.increment(buffers.stream().mapToLong(ByteBuffer::remaining).sum());
+            return buffers;
+        } finally {
+            record(metrics.read, start);
+        }
+    }
+
+    @Override
+    public long transferTo(Path path, long offset, long length, WritableByteChannel target) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannelCache.Handle handle = channelCache.acquire(path, FileChannelCache.Mode.READ)) {
+            FileChannel channel = handle.channel();
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
             }
-            return new String(Arrays.copyOf(buffer.array(), bytesRead), StandardCharsets.UTF_8);
+            metrics.bytesRead.increment(position - offset);
+            return position - offset;
+        } finally {
+            record(metrics.transfer, start);
+        }
+    }
+
+    private long readChunks(FileChannel channel, long offset, long length, ChunkConsumer consumer) throws IOException {
+        ByteBuffer buffer = bufferPool.acquire();
+        try {
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                position += read;
+                consumer.accept(buffer.flip());
+            }
+            return position - offset;
+        } finally {
+            bufferPool.release(buffer);
         }
     }
 
     @Override
     public void writeString(Path path, String data) throws IOException {
-        Files.writeString(path, data, StandardOpenOption.APPEND);
+        append(path, new ByteBuffer[]{ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8))});
+    }
+
+    @Override
+    public void append(Path path, ByteBuffer[] buffers) throws IOException {
+        long start = System.nanoTime();
+        if (contentStore != null && contentStore.detach(path)) {
+            invalidate(path);
+        }
+        try (FileChannelCache.Handle handle = channelCache.acquire(path, FileChannelCache.Mode.APPEND)) {
+            FileChannel channel = handle.channel();
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            AppendJournal.Ticket ticket = journal != null ? journal.record(path, channel.size(), buffers) : null;
+            // A gathering write may stop early, e.g. past IOV_MAX buffers
+            long written = 0;
+            try {
+                while (written < remaining) {
+                    written += channel.write(buffers);
+                }
+            } finally {
+                if (ticket != null) {
+                    journal.applied(ticket);
+                }
+            }
+            metrics.bytesAppended.increment(written);
+            if (ticket != null) {
+                journal.awaitDurable(ticket);
+            }
+        } finally {
+            mappedFileCache.invalidate(path);
+            record(metrics.append, start);
+        }
     }
 
     @Override
     public void deleteRecursively(Path path) throws IOException {
-        try (Stream<Path> walk = Files.walk(path)) {
-            walk.sorted(Comparator.reverseOrder())
-                .forEach(p -> {
-                    try {
-                        Files.delete(p);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Failed to delete: " + p, e);
-                    }
-                });
+        deleteRecursively(path, new OperationProgress());
+    }
+
+    @Override
+    public void deleteRecursively(Path path, OperationProgress progress) throws IOException {
+        long start = System.nanoTime();
+        try {
+            treeDeleter.delete(path, progress);
+            forget(path);
+        } finally {
+            invalidate(path);
+            record(metrics.delete, start);
         }
     }
 
     @Override
     public void copy(Path source, Path destination) throws IOException {
-        Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        if (contentStore != null) {
+            copy(source, destination, new OperationProgress());
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+            invalidate(destination);
+            forget(destination);
+        } finally {
+            record(metrics.copy, start);
+        }
+    }
+
+    @Override
+    public void copy(Path source, Path destination, OperationProgress progress) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (contentStore != null) {
+                contentStore.copy(source, destination, progress);
+            } else {
+                TreeCopier.copyFile(source, destination, progress);
+            }
+            invalidate(destination);
+            forget(destination);
+        } finally {
+            record(metrics.copy, start);
+        }
     }
 
     @Override
     public void move(Path source, Path destination) throws IOException {
-        Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        long start = System.nanoTime();
+        try {
+            if (journal != null) {
+                journal.move(source, destination,
+                             () -> Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING));
+            } else {
+                Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+            }
+            invalidate(source);
+            invalidate(destination);
+            forget(source);
+            forget(destination);
+        } finally {
+            record(metrics.move, start);
+        }
     }
 
     @Override
@@ -73,6 +353,11 @@ public class FileIOManagerImpl implements FileIOManager {
         return Files.exists(path);
     }
 
+    @Override
+    public boolean isInternal(Path path) {
+        return (contentStore != null && contentStore.contains(path)) || (journal != null && journal.contains(path));
+    }
+
     @Override
     public boolean isDirectory(Path path) {
         return Files.isDirectory(path);
@@ -80,17 +365,18 @@ public class FileIOManagerImpl implements FileIOManager {
 
     @Override
     public void copyDirectory(Path source, Path target) throws IOException {
-        try (Stream<Path> stream = Files.walk(source)) {
-            for (Path sourcePath : (Iterable<Path>) stream::iterator) {
-                Path relative = source.relativize(sourcePath);
-                Path targetPath = target.resolve(relative);
-                if (Files.isDirectory(sourcePath)) {
-                    Files.createDirectories(targetPath);
-                } else {
-                    Files.createDirectories(targetPath.getParent());
-                    Files.copy(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
-                }
-            }
+        copyDirectory(source, target, new OperationProgress());
+    }
+
+    @Override
+    public void copyDirectory(Path source, Path target, OperationProgress progress) throws IOException {
+        long start = System.nanoTime();
+        try {
+            treeCopier.copy(source, target, progress);
+            forget(target);
+        } finally {
+            invalidate(target);
+            record(metrics.copyDirectory, start);
         }
     }
 
@@ -102,4 +388,116 @@ public class FileIOManagerImpl implements FileIOManager {
     @Override public Stream<Path> listDirectory(Path path) throws IOException {
         return Files.list(path);
     }
+
+    @Override
+    public BasicFileAttributes readAttributes(Path path) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } finally {
+            record(metrics.stat, start);
+        }
+    }
+
+    @Override
+    public <T> List<T> listDirectory(Path path, BiFunction<Path, BasicFileAttributes, T> mapper) throws IOException {
+        long start = System.nanoTime();
+        try {
+            List<T> entries = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+                for (Path entry : stream) {
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = readEntryAttributes(stream, entry);
+                    } catch (NoSuchFileException e) {
+                        continue; // removed between listing and stat
+                    }
+                    entries.add(mapper.apply(entry, attrs));
+                }
+            }
+            return entries;
+        } finally {
+            record(metrics.list, start);
+        }
+    }
+
+    @Override
+    public List<BlockDigest> digestBlocks(Path path, long size, long blockSize, int firstBlock) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return blockHasher.digest(path, size, blockSize, firstBlock);
+        } finally {
+            record(metrics.digest, start);
+        }
+    }
+
+    @Override
+    public List<BlockSignature> blockSignatures(Path path, long size, long blockSize) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return blockHasher.signatures(path, size, blockSize);
+        } finally {
+            record(metrics.signature, start);
+        }
+    }
+
+    @Override
+    public long writeDelta(Path base, long baseSize, long blockSize, List<DeltaOp> ops, Path target)
+            throws IOException {
+        long start = System.nanoTime();
+        try {
+            return DeltaWriter.write(base, baseSize, blockSize, ops, target);
+        } finally {
+            record(metrics.delta, start);
+        }
+    }
+
+    // Atomic rename over target; readers holding the old file's channel or mappings must not see it again
+    @Override
+    public void replace(Path source, Path target) throws IOException {
+        long start = System.nanoTime();
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            invalidate(target);
+            forget(target);
+        } finally {
+            record(metrics.move, start);
+        }
+    }
+
+    @Override
+    public long walk(Path start, int maxDepth, BiPredicate<Path, BasicFileAttributes> prune, WalkVisitor visitor)
+            throws IOException {
+        long begin = System.nanoTime();
+        try {
+            return treeWalker.walk(start, maxDepth, prune, visitor);
+        } finally {
+            record(metrics.walk, begin);
+        }
+    }
+
+    private static void record(Timer timer, long start) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void invalidate(Path path) {
+        channelCache.invalidate(path);
+        mappedFileCache.invalidate(path);
+    }
+
+    // The path now names other content than its journaled appends were made to
+    private void forget(Path path) throws IOException {
+        if (journal != null) {
+            journal.forget(path);
+        }
+    }
+
+    private BasicFileAttributes readEntryAttributes(DirectoryStream<Path> stream, Path entry) throws IOException {
+        if (stream instanceof SecureDirectoryStream<Path> secureStream) {
+            // Stats relative to the open directory handle instead of resolving the full path again
+            return secureStream.getFileAttributeView(entry.getFileName(), BasicFileAttributeView.class)
+                               .readAttributes();
+        }
+        return Files.readAttributes(entry, BasicFileAttributes.class);
+    }
 }
\ No newline at end of file
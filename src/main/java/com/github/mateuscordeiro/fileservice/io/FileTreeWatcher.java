@@ -0,0 +1,216 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.util.PathUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Watches the root, except the content store and journal directories; started by the first subscriber
+@Slf4j
+@Component
+public class FileTreeWatcher {
+    private final RootPathProperties rootPathProperties;
+    private final FileIOProperties fileIOProperties;
+    private final List<Consumer<Change>> listeners = new CopyOnWriteArrayList<>();
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    // Tells a deleted directory from a deleted file, which can no longer be looked at
+    private final Set<Path> watched = ConcurrentHashMap.newKeySet();
+    private final List<Path> excluded = new ArrayList<>();
+    private WatchService watchService;
+    private Thread thread;
+    private Path root;
+    private boolean degraded;
+
+    public FileTreeWatcher(RootPathProperties rootPathProperties, FileIOProperties fileIOProperties) {
+        this.rootPathProperties = rootPathProperties;
+        this.fileIOProperties = fileIOProperties;
+    }
+
+    // Never fails: when the tree cannot be watched the watcher is degraded and subscribers see no changes
+    public synchronized void subscribe(Consumer<Change> listener) {
+        listeners.add(listener);
+        if (thread != null || degraded) {
+            return;
+        }
+        try {
+            root = PathUtils.getRoot(rootPathProperties);
+            exclude(fileIOProperties.getCas().isEnabled(), fileIOProperties.getCas().getDir());
+            exclude(fileIOProperties.getJournal().isEnabled(), fileIOProperties.getJournal().getDir());
+            watchService = root.getFileSystem().newWatchService();
+            register(root);
+        } catch (IOException | RuntimeException e) {
+            degrade(e);
+            return;
+        }
+        thread = new Thread(this::run, "file-tree-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized boolean isDegraded() {
+        return degraded;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private synchronized void degrade(Exception e) {
+        if (degraded) {
+            return;
+        }
+        degraded = true;
+        log.warn("Not watching {} for changes, subscribers fall back to polling", root, e);
+        try {
+            close();
+        } catch (IOException closeFailure) {
+            e.addSuppressed(closeFailure);
+        }
+        directories.clear();
+        watched.clear();
+    }
+
+    private void exclude(boolean enabled, Path dir) {
+        if (enabled && dir != null) {
+            excluded.add(dir.toAbsolutePath().normalize());
+        }
+    }
+
+    private boolean isExcluded(Path path) {
+        for (Path dir : excluded) {
+            if (path.startsWith(dir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void register(Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (isExcluded(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (directories.size() >= fileIOProperties.getWatch().getMaxDirectories()) {
+                    throw new IOException("More than " + fileIOProperties.getWatch().getMaxDirectories()
+                                          + " directories to watch");
+                }
+                WatchKey key;
+                try {
+                    key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                       StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                } catch (NoSuchFileException e) {
+                    return FileVisitResult.SKIP_SUBTREE; // removed while walking
+                }
+                directories.put(key, dir);
+                watched.add(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE; // removed while walking
+            }
+        });
+    }
+
+    private void run() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory = directories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                    notifyListeners(new Change(root, Change.Kind.OVERFLOW, true));
+                    continue;
+                }
+                Path changed = directory.resolve((Path) event.context());
+                if (isExcluded(changed)) {
+                    continue;
+                }
+                notifyListeners(toChange(event.kind(), changed));
+            }
+            if (!key.reset()) {
+                directories.remove(key);
+            }
+        }
+    }
+
+    private Change toChange(WatchEvent.Kind<?> kind, Path changed) {
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+            boolean directory = Files.isDirectory(changed, LinkOption.NOFOLLOW_LINKS);
+            if (directory) {
+                try {
+                    register(changed);
+                } catch (IOException e) {
+                    degrade(e);
+                }
+            }
+            return new Change(changed, Change.Kind.CREATE, directory);
+        }
+        if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            boolean directory = watched.remove(changed);
+            if (directory) {
+                watched.removeIf(path -> path.startsWith(changed));
+            }
+            return new Change(changed, Change.Kind.DELETE, directory);
+        }
+        return new Change(changed, Change.Kind.MODIFY, watched.contains(changed));
+    }
+
+    private void notifyListeners(Change changed) {
+        for (Consumer<Change> listener : listeners) {
+            try {
+                listener.accept(changed);
+            } catch (RuntimeException e) {
+                log.warn("Watch listener failed for {}", changed.path(), e);
+            }
+        }
+    }
+
+    public record Change(Path path, Kind kind, boolean directory) {
+        public enum Kind {
+            CREATE,
+            DELETE,
+            MODIFY,
+            OVERFLOW
+        }
+
+        // Whether everything below path may have changed, not just path and its parent's listing
+        public boolean subtree() {
+            return directory && kind != Kind.MODIFY;
+        }
+    }
+}
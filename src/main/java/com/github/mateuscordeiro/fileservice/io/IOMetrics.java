@@ -0,0 +1,51 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Meters are registered once so the hot paths only record
+class IOMetrics {
+    final Timer read;
+    final Timer append;
+    final Timer transfer;
+    final Timer delete;
+    final Timer copy;
+    final Timer copyDirectory;
+    final Timer move;
+    final Timer list;
+    final Timer stat;
+    final Timer walk;
+    final Timer digest;
+    final Timer signature;
+    final Timer delta;
+    final Timer journalSync;
+    final Counter bytesRead;
+    final Counter bytesAppended;
+
+    IOMetrics(MeterRegistry registry) {
+        this.read = timer(registry, "read");
+        this.append = timer(registry, "append");
+        this.transfer = timer(registry, "transfer");
+        this.delete = timer(registry, "delete");
+        this.copy = timer(registry, "copy");
+        this.copyDirectory = timer(registry, "copyDirectory");
+        this.move = timer(registry, "move");
+        this.list = timer(registry, "list");
+        this.stat = timer(registry, "stat");
+        this.walk = timer(registry, "walk");
+        this.digest = timer(registry, "digest");
+        this.signature = timer(registry, "signature");
+        this.delta = timer(registry, "delta");
+        this.journalSync = timer(registry, "journalSync");
+        this.bytesRead = Counter.builder("fileservice.io.bytes").tag("direction", "read").register(registry);
+        this.bytesAppended = Counter.builder("fileservice.io.bytes").tag("direction", "append").register(registry);
+    }
+
+    private static Timer timer(MeterRegistry registry, String operation) {
+        return Timer.builder("fileservice.io.operations")
+                    .tag("operation", operation)
+                    .publishPercentileHistogram()
+                    .register(registry);
+    }
+}
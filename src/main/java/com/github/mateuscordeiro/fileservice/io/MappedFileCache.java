@@ -0,0 +1,60 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class MappedFileCache {
+    private final long windowSize;
+    private final Map<WindowKey, MappedByteBuffer> windows;
+
+    MappedFileCache(long windowSize, int maxWindows) {
+        this.windowSize = Math.min(windowSize, Integer.MAX_VALUE);
+        this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<WindowKey, MappedByteBuffer> eldest) {
+                return size() > maxWindows;
+            }
+        };
+    }
+
+    // Decodes [offset, end) of the file open on channel, whose size the caller has just read
+    void read(Path path, FileChannel channel, long offset, long end, long fileSize, ChunkedTextDecoder decoder)
+            throws IOException {
+        long position = offset;
+        while (position < end) {
+            long index = position / windowSize;
+            long windowStart = index * windowSize;
+            MappedByteBuffer window = window(path, channel, index, fileSize);
+            int from = (int) (position - windowStart);
+            int count = (int) Math.min(end - position, window.capacity() - from);
+            decoder.decode(window.slice(from, count));
+            position += count;
+        }
+    }
+
+    synchronized void invalidate(Path path) {
+        windows.keySet().removeIf(key -> key.path().startsWith(path));
+    }
+
+    private synchronized MappedByteBuffer window(Path path, FileChannel channel, long index, long fileSize)
+            throws IOException {
+        WindowKey key = new WindowKey(path, index);
+        long windowStart = index * windowSize;
+        long expectedLength = Math.min(windowSize, fileSize - windowStart);
+
+        MappedByteBuffer window = windows.get(key);
+        // The file grew or shrank since the window was mapped, so its tail no longer matches
+        if (window == null || window.capacity() != expectedLength) {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, expectedLength);
+            windows.put(key, window);
+        }
+        return window;
+    }
+
+    private record WindowKey(Path path, long index) {
+    }
+}
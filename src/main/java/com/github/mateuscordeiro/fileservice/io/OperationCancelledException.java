@@ -0,0 +1,10 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class OperationCancelledException extends IOException {
+    public OperationCancelledException(Path path) {
+        super("Cancelled at " + path);
+    }
+}
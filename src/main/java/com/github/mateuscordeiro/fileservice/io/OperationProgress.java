@@ -0,0 +1,41 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+// Workers stop at the next entry or transfer chunk once cancel() is called
+public final class OperationProgress {
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private volatile boolean cancelled;
+
+    public long getFiles() {
+        return files.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    void addFile() {
+        files.increment();
+    }
+
+    void addBytes(long count) {
+        bytes.add(count);
+    }
+
+    void checkCancelled(Path path) throws OperationCancelledException {
+        if (cancelled) {
+            throw new OperationCancelledException(path);
+        }
+    }
+}
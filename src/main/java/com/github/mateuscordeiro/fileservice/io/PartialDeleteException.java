@@ -0,0 +1,29 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+public class PartialDeleteException extends IOException {
+    private final Map<Path, IOException> failures;
+    private final long failureCount;
+
+    public PartialDeleteException(Path path, Map<Path, IOException> failures) {
+        this(path, failures, failures.size());
+    }
+
+    // failures holds only some of the failureCount failures when there were many
+    public PartialDeleteException(Path path, Map<Path, IOException> failures, long failureCount) {
+        super("Failed to delete " + failureCount + " entries under " + path);
+        this.failures = failures;
+        this.failureCount = failureCount;
+    }
+
+    public Map<Path, IOException> getFailures() {
+        return failures;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// One positional read per run of overlapping or adjacent ranges
+class RangeReader {
+    private static final int MAX_RUN = Integer.MAX_VALUE - 8;
+
+    private RangeReader() {
+    }
+
+    // Results are in request order and stop at the end of the file
+    static List<ByteBuffer> read(FileChannel channel, List<ByteRange> ranges, long maxTotal) throws IOException {
+        long size = channel.size();
+        Integer[] order = new Integer[ranges.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingLong(i -> ranges.get(i).offset()));
+
+        ByteBuffer[] results = new ByteBuffer[ranges.size()];
+        long total = 0;
+        int first = 0;
+        while (first < order.length) {
+            long start = ranges.get(order[first]).offset();
+            long end = ranges.get(order[first]).end();
+            int last = first + 1;
+            while (last < order.length && ranges.get(order[last]).offset() <= end) {
+                end = Math.max(end, ranges.get(order[last]).end());
+                last++;
+            }
+            end = Math.min(end, size);
+            long length = Math.max(0, end - start);
+            total += length;
+            if (total > maxTotal) {
+                throw new IllegalArgumentException("ranges must not cover more than " + maxTotal + " bytes");
+            }
+            if (length > MAX_RUN) {
+                throw new IllegalArgumentException("merged ranges must not exceed " + MAX_RUN + " bytes");
+            }
+
+            // A file truncated since size() was read yields a shorter run
+            ByteBuffer run = readFully(channel, start, (int) length);
+            long read = run.remaining();
+            for (int i = first; i < last; i++) {
+                ByteRange range = ranges.get(order[i]);
+                int from = (int) Math.min(range.offset() - start, read);
+                int to = (int) Math.min(range.end() - start, read);
+                results[order[i]] = run.slice(from, to - from);
+            }
+            first = last;
+        }
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+}
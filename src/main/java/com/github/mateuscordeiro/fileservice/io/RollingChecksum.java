@@ -0,0 +1,43 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.nio.ByteBuffer;
+
+// The rsync weak checksum over a window of n bytes x[0..n-1], all unsigned:
+//   a = sum(x[i]) mod 2^16, b = sum((n - i) * x[i]) mod 2^16, value = a | b << 16
+public final class RollingChecksum {
+    private final int length;
+    private int a;
+    private int b;
+
+    private RollingChecksum(int length, int a, int b) {
+        this.length = length;
+        this.a = a;
+        this.b = b;
+    }
+
+    public static RollingChecksum of(byte[] bytes, int offset, int length) {
+        return of(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    public static RollingChecksum of(ByteBuffer window) {
+        int length = window.remaining();
+        int a = 0;
+        int b = 0;
+        for (int i = 0; i < length; i++) {
+            int x = window.get(window.position() + i) & 0xFF;
+            a += x;
+            b += (length - i) * x;
+        }
+        return new RollingChecksum(length, a & 0xFFFF, b & 0xFFFF);
+    }
+
+    // Drops the first byte of the window and appends the next one
+    public void roll(byte out, byte in) {
+        a = (a - (out & 0xFF) + (in & 0xFF)) & 0xFFFF;
+        b = (b - length * (out & 0xFF) + a) & 0xFFFF;
+    }
+
+    public int value() {
+        return a | b << 16;
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+// One task per directory and per file; a directory is created before its children are forked
+class TreeCopier {
+    // Largest single transferTo call, so progress and cancellation are observed within large files
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final FileCopier fileCopier;
+    private final Predicate<Path> internal;
+
+    TreeCopier(ForkJoinPool pool, FileCopier fileCopier, Predicate<Path> internal) {
+        this.pool = pool;
+        this.fileCopier = fileCopier;
+        this.internal = internal;
+    }
+
+    void copy(Path source, Path target, OperationProgress progress) throws IOException {
+        try {
+            pool.invoke(new DirectoryTask(source, target, progress));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    static void copyFile(Path source, Path target, OperationProgress progress) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                progress.checkCancelled(source);
+                long transferred = in.transferTo(position, Math.min(size - position, TRANSFER_CHUNK), out);
+                if (transferred <= 0) {
+                    break; // source shrank while copying
+                }
+                position += transferred;
+                progress.addBytes(transferred);
+            }
+        }
+        progress.addFile();
+    }
+
+    private final class DirectoryTask extends RecursiveAction {
+        private final Path source;
+        private final Path target;
+        private final OperationProgress progress;
+
+        DirectoryTask(Path source, Path target, OperationProgress progress) {
+            this.source = source;
+            this.target = target;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForkJoinTask<?>> children = new ArrayList<>();
+            try {
+                progress.checkCancelled(source);
+                Files.createDirectories(target);
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(source)) {
+                    for (Path entry : stream) {
+                        if (internal.test(entry)) {
+                            continue;
+                        }
+                        Path entryTarget = target.resolve(entry.getFileName().toString());
+                        BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class,
+                                                                         LinkOption.NOFOLLOW_LINKS);
+                        if (attrs.isDirectory()) {
+                            children.add(new DirectoryTask(entry, entryTarget, progress));
+                        } else {
+                            children.add(new FileTask(entry, entryTarget, attrs.isSymbolicLink(), progress));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(children);
+        }
+    }
+
+    private final class FileTask extends RecursiveAction {
+        private final Path source;
+        private final Path target;
+        private final boolean symbolicLink;
+        private final OperationProgress progress;
+
+        FileTask(Path source, Path target, boolean symbolicLink, OperationProgress progress) {
+            this.source = source;
+            this.target = target;
+            this.symbolicLink = symbolicLink;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (symbolicLink) {
+                    // Links keep the previous behaviour: the target's content is copied, not the link
+                    progress.checkCancelled(source);
+                    Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+                    progress.addFile();
+                } else {
+                    fileCopier.copy(source, target, progress);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
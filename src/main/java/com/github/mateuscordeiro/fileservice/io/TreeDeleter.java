@@ -0,0 +1,110 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Deletes a tree in post-order while listing it, one task per subdirectory; failures are collected per path
+class TreeDeleter {
+    // Failures beyond this are only counted, so a large unreadable tree does not make a huge error
+    static final int MAX_RECORDED_FAILURES = 100;
+
+    private final ForkJoinPool pool;
+
+    TreeDeleter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    void delete(Path path, OperationProgress progress) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (!attrs.isDirectory()) {
+            progress.checkCancelled(path);
+            Files.delete(path);
+            progress.addFile();
+            return;
+        }
+        Failures failures = new Failures();
+        pool.invoke(new DirectoryTask(path, failures, progress));
+        progress.checkCancelled(path);
+        if (failures.count.get() > 0) {
+            throw new PartialDeleteException(path, failures.recorded, failures.count.get());
+        }
+    }
+
+    private static final class Failures {
+        private final Map<Path, IOException> recorded = new ConcurrentSkipListMap<>();
+        private final AtomicLong count = new AtomicLong();
+
+        void add(Path path, IOException e) {
+            if (count.incrementAndGet() <= MAX_RECORDED_FAILURES) {
+                recorded.put(path, e);
+            }
+        }
+    }
+
+    private static final class DirectoryTask extends RecursiveTask<Boolean> {
+        private final Path directory;
+        private final Failures failures;
+        private final OperationProgress progress;
+
+        DirectoryTask(Path directory, Failures failures, OperationProgress progress) {
+            this.directory = directory;
+            this.failures = failures;
+            this.progress = progress;
+        }
+
+        @Override
+        protected Boolean compute() {
+            boolean emptied = true;
+            Deque<DirectoryTask> subdirectories = new ArrayDeque<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path entry : stream) {
+                    if (progress.isCancelled()) {
+                        emptied = false;
+                        break;
+                    }
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        DirectoryTask task = new DirectoryTask(entry, failures, progress);
+                        task.fork();
+                        subdirectories.push(task);
+                    } else if (deleteEntry(entry)) {
+                        progress.addFile();
+                    } else {
+                        emptied = false;
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                return true; // removed concurrently
+            } catch (IOException e) {
+                failures.add(directory, e);
+                emptied = false;
+            }
+            // Joined newest first, matching the order the pool runs forked tasks on this worker
+            while (!subdirectories.isEmpty()) {
+                emptied &= subdirectories.pop().join();
+            }
+            return emptied && deleteEntry(directory);
+        }
+
+        private boolean deleteEntry(Path path) {
+            try {
+                Files.deleteIfExists(path);
+                return true;
+            } catch (IOException e) {
+                failures.add(path, e);
+                return false;
+            }
+        }
+    }
+}
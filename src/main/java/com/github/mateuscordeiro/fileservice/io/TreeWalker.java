@@ -0,0 +1,145 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+// Lists directories in parallel into a bounded queue, so a slow consumer holds back the walk
+class TreeWalker {
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final ForkJoinPool pool;
+
+    TreeWalker(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    long walk(Path start, int maxDepth, BiPredicate<Path, BasicFileAttributes> prune, WalkVisitor visitor)
+            throws IOException {
+        Walk walk = new Walk(maxDepth, prune);
+        walk.pending.incrementAndGet();
+        pool.execute(walk.new DirectoryTask(start, 1));
+        long visited = 0;
+        try {
+            while (true) {
+                Entry entry = walk.queue.take();
+                if (entry == Walk.END || !visitor.visit(entry.path(), entry.attrs())) {
+                    return visited;
+                }
+                visited++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Walk of " + start + " interrupted");
+        } finally {
+            walk.stopped = true;
+            walk.queue.clear();
+        }
+    }
+
+    private record Entry(Path path, BasicFileAttributes attrs) {
+    }
+
+    private static final class Walk {
+        private static final Entry END = new Entry(null, null);
+
+        private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final AtomicInteger pending = new AtomicInteger();
+        private final int maxDepth;
+        private final BiPredicate<Path, BasicFileAttributes> prune;
+        private volatile boolean stopped;
+
+        Walk(int maxDepth, BiPredicate<Path, BasicFileAttributes> prune) {
+            this.maxDepth = maxDepth;
+            this.prune = prune;
+        }
+
+        // A managed block, so the pool adds a worker instead of stalling behind a slow consumer
+        private void publish(Entry entry) {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        while (!stopped) {
+                            if (queue.offer(entry, 100, TimeUnit.MILLISECONDS)) {
+                                break;
+                            }
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return stopped || queue.offer(entry);
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped = true;
+            }
+        }
+
+        private final class DirectoryTask extends RecursiveAction {
+            private final Path directory;
+            private final int depth;
+
+            DirectoryTask(Path directory, int depth) {
+                this.directory = directory;
+                this.depth = depth;
+            }
+
+            @Override
+            protected void compute() {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                    for (Path entry : stream) {
+                        if (stopped) {
+                            break;
+                        }
+                        visitEntry(entry);
+                    }
+                } catch (IOException e) {
+                    // unreadable or removed while walking
+                } finally {
+                    if (pending.decrementAndGet() == 0) {
+                        publish(END);
+                    }
+                }
+            }
+
+            private void visitEntry(Path entry) throws IOException {
+                BasicFileAttributes attrs;
+                boolean link;
+                try {
+                    attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    link = attrs.isSymbolicLink();
+                    if (link) {
+                        // Reported by their target like listChildren does, but never descended into
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+                    }
+                } catch (NoSuchFileException e) {
+                    return; // removed, or a dangling link
+                }
+                if (prune.test(entry, attrs)) {
+                    return;
+                }
+                publish(new Entry(entry, attrs));
+                if (!link && attrs.isDirectory() && depth < maxDepth) {
+                    pending.incrementAndGet();
+                    new DirectoryTask(entry, depth + 1).fork();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+@FunctionalInterface
+public interface WalkVisitor {
+    // Called on the walking caller's thread, one entry at a time; returning false ends the walk
+    boolean visit(Path path, BasicFileAttributes attrs) throws IOException;
+}
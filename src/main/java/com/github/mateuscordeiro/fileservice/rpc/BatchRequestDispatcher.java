@@ -0,0 +1,159 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.concurrency.ExecutorUtils;
+import com.github.mateuscordeiro.fileservice.config.RpcProperties;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.googlecode.jsonrpc4j.JsonRpcServer;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+public class BatchRequestDispatcher {
+    private static final String[] PATH_FIELDS = {"path", "source", "destination"};
+
+    private final RpcProperties.Batch properties;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+
+    public BatchRequestDispatcher(RpcProperties rpcProperties, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.properties = rpcProperties.getBatch();
+        this.objectMapper = objectMapper;
+        // A saturated pool runs the entry on the submitting thread instead of rejecting it
+        this.executor = ExecutorUtils.newBoundedPool("rpc-batch-", properties.getThreads(),
+                                                     properties.getQueueCapacity(),
+                                                     new ThreadPoolExecutor.CallerRunsPolicy(),
+                                                     "fileservice.rpc.batch", meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean supports(JsonNode request) {
+        return properties.isParallel() && request.isArray() && request.size() > 1;
+    }
+
+    public void dispatch(JsonRpcServer server, JsonNode batch, OutputStream output) throws IOException {
+        int size = batch.size();
+        byte[][] responses = new byte[size][];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[size];
+        Map<Path, CompletableFuture<?>> lastByPath = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            JsonNode entry = batch.get(i);
+            List<Path> paths = pathsOf(entry);
+
+            // An entry waits for every earlier entry touching the same path, an ancestor or a descendant of it
+            List<CompletableFuture<?>> dependencies = new ArrayList<>();
+            lastByPath.forEach((path, future) -> {
+                if (paths.stream().anyMatch(p -> overlaps(p, path))) {
+                    dependencies.add(future);
+                }
+            });
+
+            int index = i;
+            CompletableFuture<Void> future = CompletableFuture
+                    .allOf(dependencies.toArray(CompletableFuture<?>[]::new))
+                    .handle((ignored, error) -> null)
+                    .thenRunAsync(() -> responses[index] = handle(server, entry), executor);
+            paths.forEach(path -> lastByPath.put(path, future));
+            futures[i] = future;
+        }
+
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+        writeResponses(responses, output);
+    }
+
+    private byte[] handle(JsonRpcServer server, JsonNode entry) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            server.handleRequest(new ByteArrayInputStream(objectMapper.writeValueAsBytes(entry)), out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeResponses(byte[][] responses, OutputStream output) throws IOException {
+        boolean first = true;
+        for (byte[] response : responses) {
+            // Notifications produce no response and are left out of the array
+            if (response.length == 0) {
+                continue;
+            }
+            output.write(first ? '[' : ',');
+            output.write(response);
+            first = false;
+        }
+        if (!first) {
+            output.write(']');
+        }
+        output.flush();
+    }
+
+    private List<Path> pathsOf(JsonNode entry) {
+        JsonNode params = entry.path("params");
+        JsonNode dto = params.isArray() ? params.path(0) : params;
+        List<Path> paths = new ArrayList<>(2);
+        collectPaths(dto, paths);
+        return paths;
+    }
+
+    // At any depth, so executeBatch is ordered against every path it touches
+    private static void collectPaths(JsonNode node, List<Path> paths) {
+        if (node.isArray()) {
+            node.forEach(element -> collectPaths(element, paths));
+            return;
+        }
+        if (!node.isObject()) {
+            return;
+        }
+        for (String field : PATH_FIELDS) {
+            JsonNode value = node.path(field);
+            if (value.isTextual()) {
+                try {
+                    paths.add(Path.of(value.asText()).normalize());
+                } catch (InvalidPathException ignored) {
+                    // The entry will fail validation on its own, it has nothing to order against
+                }
+            }
+        }
+        node.forEach(value -> {
+            if (value.isContainerNode()) {
+                collectPaths(value, paths);
+            }
+        });
+    }
+
+    private static boolean overlaps(Path a, Path b) {
+        return a.toString().isEmpty() || b.toString().isEmpty() || a.startsWith(b) || b.startsWith(a);
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Holds back the first minSize bytes; a longer response is compressed from then on as it is written
+final class CompressingOutputStream extends OutputStream {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream target;
+    private final String encoding;
+    private final int level;
+    private final Runnable onCompress;
+    private byte[] pending;
+    private int count;
+    private DeflaterOutputStream compressor;
+    private Deflater deflater;
+    private boolean closed;
+
+    CompressingOutputStream(OutputStream target, String encoding, int level, int minSize, Runnable onCompress) {
+        this.target = target;
+        this.encoding = encoding;
+        this.level = level;
+        this.onCompress = onCompress;
+        this.pending = new byte[minSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (compressor != null) {
+            compressor.write(bytes, offset, length);
+        } else if (count + length <= pending.length) {
+            System.arraycopy(bytes, offset, pending, count, length);
+            count += length;
+        } else {
+            startCompressing();
+            compressor.write(bytes, offset, length);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (compressor != null) {
+            compressor.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (compressor != null) {
+                compressor.close();
+            } else {
+                target.write(pending, 0, count);
+                target.close();
+            }
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    private void startCompressing() throws IOException {
+        onCompress.run();
+        if (ResponseCompression.GZIP.equals(encoding)) {
+            // Sync flush, so streamed walks still reach the client as they go
+            compressor = new GZIPOutputStream(target, BUFFER_SIZE, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        } else {
+            deflater = new Deflater(level);
+            compressor = new DeflaterOutputStream(target, deflater, BUFFER_SIZE, true);
+        }
+        compressor.write(pending, 0, count);
+        pending = null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import com.github.mateuscordeiro.fileservice.exception.FileNotFoundException;
+import com.github.mateuscordeiro.fileservice.exception.InvalidPathException;
+import com.github.mateuscordeiro.fileservice.io.ByteRange;
+import com.github.mateuscordeiro.fileservice.service.FileSystemService;
+
+@RestController
+@RequestMapping("/filesystem/content")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class FileContentController {
+    private final FileSystemService service;
+
+    public FileContentController(FileSystemService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    public void download(@RequestParam String path,
+                         @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+                         HttpServletResponse response) throws IOException {
+        List<HttpRange> ranges = parseRanges(rangeHeader);
+        WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+        service.transferTo(path, size -> respond(ranges, size, response), output);
+    }
+
+    // Sets the status and headers for a file of size and returns the bytes to send
+    private static ByteRange respond(List<HttpRange> ranges, long size, HttpServletResponse response) {
+        long start = 0;
+        long end = size - 1;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // Multiple ranges are not supported; ignoring the header and serving the whole file is allowed by RFC 7233
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            start = range.getRangeStart(size);
+            end = range.getRangeEnd(size);
+            if (size == 0 || start >= size || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return null;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+
+        long length = end - start + 1;
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(length);
+        return new ByteRange(start, length);
+    }
+
+    @ExceptionHandler(FileNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(FileNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    @ExceptionHandler({InvalidPathException.class, IllegalArgumentException.class})
+    public ResponseEntity<String> handleInvalid(RuntimeException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    static List<HttpRange> parseRanges(String rangeHeader) {
+        if (rangeHeader == null || rangeHeader.isBlank()) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored, as RFC 7233 allows
+            return List.of();
+        }
+    }
+}
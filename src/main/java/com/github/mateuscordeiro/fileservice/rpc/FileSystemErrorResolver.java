@@ -0,0 +1,42 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.exception.DeleteFailedException;
+import com.github.mateuscordeiro.fileservice.exception.FileAlreadyExistsException;
+import com.github.mateuscordeiro.fileservice.exception.FileNotFoundException;
+import com.github.mateuscordeiro.fileservice.exception.InvalidPathException;
+import com.github.mateuscordeiro.fileservice.exception.JobNotFoundException;
+import com.github.mateuscordeiro.fileservice.exception.JobRejectedException;
+import com.github.mateuscordeiro.fileservice.exception.VersionConflictException;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.DeleteFailures;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.googlecode.jsonrpc4j.ErrorResolver;
+
+@Component
+public class FileSystemErrorResolver implements ErrorResolver {
+    @Override
+    public JsonError resolveError(Throwable throwable, Method method, List<JsonNode> arguments) {
+        if (throwable instanceof DeleteFailedException e) {
+            return new JsonError(-32003, e.getMessage(),
+                                 new DeleteFailures(e.getFailureCount(), e.getFailures().size() < e.getFailureCount(),
+                                                    e.getFailures()));
+        } else if (throwable instanceof FileNotFoundException) {
+            return new JsonError(-32001, throwable.getMessage(), null);
+        } else if (throwable instanceof FileAlreadyExistsException) {
+            return new JsonError(-32002, throwable.getMessage(), null);
+        } else if (throwable instanceof JobNotFoundException) {
+            return new JsonError(-32004, throwable.getMessage(), null);
+        } else if (throwable instanceof JobRejectedException) {
+            return new JsonError(-32005, throwable.getMessage(), null);
+        } else if (throwable instanceof VersionConflictException) {
+            return new JsonError(-32006, throwable.getMessage(), null);
+        } else if (throwable instanceof InvalidPathException || throwable instanceof IllegalArgumentException) {
+            return new JsonError(-32602, "Invalid parameters: " + throwable.getMessage(), null);
+        }
+        return JsonError.INTERNAL_ERROR;
+    }
+}
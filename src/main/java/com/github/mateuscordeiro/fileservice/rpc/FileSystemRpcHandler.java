@@ -1,27 +1,65 @@
 package com.github.mateuscordeiro.fileservice.rpc;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.config.RpcProperties;
+import com.github.mateuscordeiro.fileservice.io.ByteRange;
+import com.github.mateuscordeiro.fileservice.io.DeltaOp;
 import com.github.mateuscordeiro.fileservice.rpc.dto.FileInfo;
 import com.github.mateuscordeiro.fileservice.rpc.dto.request.AppendRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ApplyDeltaRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ChecksumRequest;
 import com.github.mateuscordeiro.fileservice.rpc.dto.request.CopyRequest;
 import com.github.mateuscordeiro.fileservice.rpc.dto.request.CreateRequest;
 import com.github.mateuscordeiro.fileservice.rpc.dto.request.DeleteRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ExecuteBatchRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.FollowRequest;
 import com.github.mateuscordeiro.fileservice.rpc.dto.request.GetFileInfoRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.JobRequest;
 import com.github.mateuscordeiro.fileservice.rpc.dto.request.ListChildrenRequest;
 import com.github.mateuscordeiro.fileservice.rpc.dto.request.MoveRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ReadRangesRequest;
 import com.github.mateuscordeiro.fileservice.rpc.dto.request.ReadRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.SignatureRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.VerifyIndexRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.WalkRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.ChecksumResponse;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.DeltaResult;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.ExecuteBatchResponse;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.FollowResponse;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.IndexReport;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.JobStatus;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.ReadRangesResponse;
 import com.github.mateuscordeiro.fileservice.rpc.dto.response.ReadResponse;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.SignatureResponse;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.WalkResponse;
+import com.github.mateuscordeiro.fileservice.service.BatchOperation;
 import com.github.mateuscordeiro.fileservice.service.FileSystemService;
+import com.github.mateuscordeiro.fileservice.service.Job;
+import com.github.mateuscordeiro.fileservice.service.JobManager;
+import com.github.mateuscordeiro.fileservice.service.OperationBatchExecutor;
 import com.github.mateuscordeiro.fileservice.validation.ValidationUtils;
 
+import com.googlecode.jsonrpc4j.ErrorResolver.JsonError;
+
 @Component
 public class FileSystemRpcHandler {
     private final FileSystemService service;
+    private final RpcProperties rpcProperties;
+    private final JobManager jobManager;
+    private final FileSystemErrorResolver errorResolver;
+    private final OperationBatchExecutor batchExecutor;
 
-    public FileSystemRpcHandler(FileSystemService service) {
+    public FileSystemRpcHandler(FileSystemService service, RpcProperties rpcProperties, JobManager jobManager,
+                                FileSystemErrorResolver errorResolver, OperationBatchExecutor batchExecutor) {
         this.service = service;
+        this.rpcProperties = rpcProperties;
+        this.jobManager = jobManager;
+        this.errorResolver = errorResolver;
+        this.batchExecutor = batchExecutor;
     }
 
     public FileInfo getFileInfo(GetFileInfoRequest path) {
@@ -42,24 +80,52 @@ public class FileSystemRpcHandler {
         service.create(request.getPath(), request.isDirectory());
     }
 
-    public void delete(DeleteRequest request) {
+    // delete, move and copy return null when run synchronously, and the job's status when async is set
+    public JobStatus delete(DeleteRequest request) {
         ValidationUtils.requireNonBlank(request.getPath(), "path");
 
+        if (request.isAsync()) {
+            return toStatus(jobManager.submit("delete", progress -> service.delete(request.getPath(), progress)));
+        }
         service.delete(request.getPath());
+        return null;
     }
 
-    public void move(MoveRequest request) {
+    public JobStatus move(MoveRequest request) {
         ValidationUtils.requireNonBlank(request.getSource(), "source");
         ValidationUtils.requireNonBlank(request.getDestination(), "destination");
 
+        if (request.isAsync()) {
+            // A move is a rename, so it can only be cancelled while queued
+            return toStatus(jobManager.submit("move", progress -> service.move(request.getSource(),
+                                                                               request.getDestination())));
+        }
         service.move(request.getSource(), request.getDestination());
+        return null;
     }
 
-    public void copy(CopyRequest request) {
+    public JobStatus copy(CopyRequest request) {
         ValidationUtils.requireNonBlank(request.getSource(), "source");
         ValidationUtils.requireNonBlank(request.getDestination(), "destination");
 
+        if (request.isAsync()) {
+            return toStatus(jobManager.submit("copy", progress -> service.copy(request.getSource(),
+                                                                               request.getDestination(), progress)));
+        }
         service.copy(request.getSource(), request.getDestination());
+        return null;
+    }
+
+    public JobStatus getJobStatus(JobRequest request) {
+        ValidationUtils.requireNonBlank(request.getId(), "id");
+
+        return toStatus(jobManager.get(request.getId()));
+    }
+
+    public JobStatus cancelJob(JobRequest request) {
+        ValidationUtils.requireNonBlank(request.getId(), "id");
+
+        return toStatus(jobManager.cancel(request.getId()));
     }
 
     public void append(AppendRequest request) {
@@ -76,4 +142,178 @@ public class FileSystemRpcHandler {
 
         return new ReadResponse(service.read(request.getPath(), request.getOffset(), request.getLength()));
     }
-}
\ No newline at end of file
+
+    public FollowResponse follow(FollowRequest request) {
+        ValidationUtils.requireNonBlank(request.getPath(), "path");
+        ValidationUtils.requireNonNegative(request.getOffset(), "offset");
+        ValidationUtils.requirePositive(request.getLength(), "length");
+        Duration timeout = null;
+        if (request.getTimeoutMillis() != null) {
+            ValidationUtils.requireNonNegative(request.getTimeoutMillis(), "timeoutMillis");
+            timeout = Duration.ofMillis(request.getTimeoutMillis());
+        }
+
+        return service.follow(request.getPath(), request.getOffset(), request.getLength(), timeout);
+    }
+
+    public ReadRangesResponse readRanges(ReadRangesRequest request) {
+        ValidationUtils.requireNonBlank(request.getPath(), "path");
+        ValidationUtils.requireNonNull(request.getRanges(), "ranges");
+
+        List<ByteRange> ranges = new ArrayList<>(request.getRanges().size());
+        for (ReadRangesRequest.Range range : request.getRanges()) {
+            ValidationUtils.requireNonNegative(range.getOffset(), "offset");
+            ValidationUtils.requirePositive(range.getLength(), "length");
+            ranges.add(new ByteRange(range.getOffset(), range.getLength()));
+        }
+        return new ReadRangesResponse(service.readRanges(request.getPath(), ranges));
+    }
+
+    // Single walk requests are streamed by WalkStreamer; this answers the ones that arrive inside a batch
+    public WalkResponse walk(WalkRequest request) {
+        validate(request);
+
+        long limit = Math.min(limitOf(request), rpcProperties.getWalk().getMaxBufferedEntries());
+        List<FileInfo> entries = new ArrayList<>();
+        boolean truncated = service.walk(request.getPath(), maxDepthOf(request), request.getInclude(),
+                                         request.getExclude(), limit, entries::add);
+        return new WalkResponse(entries, truncated);
+    }
+
+    public ChecksumResponse checksum(ChecksumRequest request) {
+        ValidationUtils.requireNonBlank(request.getPath(), "path");
+
+        return service.checksum(request.getPath());
+    }
+
+    public SignatureResponse getSignatures(SignatureRequest request) {
+        ValidationUtils.requireNonBlank(request.getPath(), "path");
+
+        return service.signatures(request.getPath(), blockSizeOf(request.getBlockSize()));
+    }
+
+    public DeltaResult applyDelta(ApplyDeltaRequest request) {
+        ValidationUtils.requireNonBlank(request.getPath(), "path");
+        ValidationUtils.requireNonBlank(request.getBaseVersion(), "baseVersion");
+        ValidationUtils.requireNonNull(request.getBlockSize(), "blockSize");
+        ValidationUtils.requireNonNull(request.getOps(), "ops");
+
+        long blockSize = blockSizeOf(request.getBlockSize());
+        List<DeltaOp> ops = new ArrayList<>(request.getOps().size());
+        for (ApplyDeltaRequest.Op op : request.getOps()) {
+            ops.add(toDeltaOp(op));
+        }
+        return service.applyDelta(request.getPath(), request.getBaseVersion(), blockSize, ops);
+    }
+
+    // Every operation runs and reports its own result; a failed one does not stop the rest
+    public ExecuteBatchResponse executeBatch(ExecuteBatchRequest request) {
+        ValidationUtils.requireNonNull(request.getOperations(), "operations");
+        ValidationUtils.requireAtMost(request.getOperations().size(),
+                                      rpcProperties.getExecuteBatch().getMaxOperations(), "operations");
+
+        List<BatchOperation> operations = new ArrayList<>(request.getOperations().size());
+        for (ExecuteBatchRequest.Operation operation : request.getOperations()) {
+            operations.add(toBatchOperation(operation));
+        }
+        List<RuntimeException> failures = batchExecutor.execute(operations);
+        List<ExecuteBatchResponse.Result> results = new ArrayList<>(failures.size());
+        for (RuntimeException failure : failures) {
+            ExecuteBatchResponse.OperationError error = null;
+            if (failure != null) {
+                JsonError resolved = resolveError(failure);
+                error = new ExecuteBatchResponse.OperationError(resolved.code, resolved.message, resolved.data);
+            }
+            results.add(new ExecuteBatchResponse.Result(failure == null, error));
+        }
+        return new ExecuteBatchResponse(results);
+    }
+
+    public IndexReport verifyIndex(VerifyIndexRequest request) {
+        return service.verifyIndex(request.isRepair());
+    }
+
+    private long blockSizeOf(Long blockSize) {
+        RpcProperties.Delta delta = rpcProperties.getDelta();
+        if (blockSize == null) {
+            return delta.getDefaultBlockSize().toBytes();
+        }
+        ValidationUtils.requirePositive(blockSize, "blockSize");
+        ValidationUtils.requireAtMost(blockSize, delta.getMaxBlockSize().toBytes(), "blockSize");
+        return blockSize;
+    }
+
+    private static DeltaOp toDeltaOp(ApplyDeltaRequest.Op op) {
+        if ((op.getData() == null) == (op.getBlock() == null)) {
+            throw new IllegalArgumentException("Each op needs exactly one of block or data");
+        }
+        if (op.getData() != null) {
+            return DeltaOp.literal(op.getData());
+        }
+        int count = op.getCount() == null ? 1 : op.getCount();
+        ValidationUtils.requireNonNegative(op.getBlock(), "block");
+        ValidationUtils.requirePositive(count, "count");
+        return DeltaOp.blocks(op.getBlock(), count);
+    }
+
+    private static BatchOperation toBatchOperation(ExecuteBatchRequest.Operation operation) {
+        ValidationUtils.requireNonBlank(operation.getOp(), "op");
+        String op = operation.getOp();
+        if (op.equals("move") || op.equals("copy")) {
+            ValidationUtils.requireNonBlank(operation.getSource(), "source");
+            ValidationUtils.requireNonBlank(operation.getDestination(), "destination");
+            return op.equals("move")
+                    ? BatchOperation.move(operation.getSource(), operation.getDestination())
+                    : BatchOperation.copy(operation.getSource(), operation.getDestination());
+        }
+        ValidationUtils.requireNonBlank(operation.getPath(), "path");
+        if (op.equals("append")) {
+            ValidationUtils.requireNonNull(operation.getData(), "data");
+        }
+        return switch (op) {
+            case "create" -> BatchOperation.create(operation.getPath(), operation.isDirectory());
+            case "append" -> BatchOperation.append(operation.getPath(), operation.getData());
+            case "delete" -> BatchOperation.delete(operation.getPath());
+            default -> throw new IllegalArgumentException("Unknown op: " + op);
+        };
+    }
+
+    private JsonError resolveError(Throwable failure) {
+        return errorResolver.resolveError(failure, null, null);
+    }
+
+    private JobStatus toStatus(Job job) {
+        Job.State state = job.getState();
+        JobStatus.JobError error = null;
+        if (state == Job.State.FAILED) {
+            JsonError resolved = resolveError(job.getFailure());
+            error = new JobStatus.JobError(resolved.code, resolved.message, resolved.data);
+        }
+        return JobStatus.builder()
+                        .id(job.getId())
+                        .operation(job.getOperation())
+                        .state(state.name())
+                        .filesProcessed(job.getProgress().getFiles())
+                        .bytesProcessed(job.getProgress().getBytes())
+                        .error(error)
+                        .build();
+    }
+
+    static void validate(WalkRequest request) {
+        ValidationUtils.requireNonBlank(request.getPath(), "path");
+        if (request.getMaxDepth() != null) {
+            ValidationUtils.requirePositive(request.getMaxDepth(), "maxDepth");
+        }
+        if (request.getLimit() != null) {
+            ValidationUtils.requirePositive(request.getLimit(), "limit");
+        }
+    }
+
+    static int maxDepthOf(WalkRequest request) {
+        return request.getMaxDepth() == null ? Integer.MAX_VALUE : request.getMaxDepth();
+    }
+
+    static long limitOf(WalkRequest request) {
+        return request.getLimit() == null ? Long.MAX_VALUE : request.getLimit();
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.FollowRequest;
+import com.github.mateuscordeiro.fileservice.service.FileSystemService;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+// Waits out a single follow call without holding a thread, then hands back the request with no wait left in it
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class FollowWaiter {
+    private static final String METHOD = "follow";
+    private static final byte[] METHOD_TOKEN = ("\"" + METHOD + "\"").getBytes(StandardCharsets.US_ASCII);
+
+    private final FileSystemService service;
+    private final ObjectMapper objectMapper;
+
+    public FollowWaiter(FileSystemService service, ObjectMapper objectMapper) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+    }
+
+    // Any other body, or a follow the call itself would reject, is returned as is
+    public CompletableFuture<byte[]> await(byte[] body, Executor executor) {
+        if (!RpcRequestProcessor.contains(body, METHOD_TOKEN)) {
+            return CompletableFuture.completedFuture(body);
+        }
+        JsonNode request = parse(body);
+        if (request == null || !request.isObject() || !METHOD.equals(request.path("method").asText())) {
+            return CompletableFuture.completedFuture(body);
+        }
+        JsonNode params = request.get("params");
+        JsonNode node = params != null && params.isArray() ? params.get(0) : params;
+        if (!(node instanceof ObjectNode fields)) {
+            return CompletableFuture.completedFuture(body);
+        }
+
+        CompletableFuture<Boolean> wait;
+        try {
+            FollowRequest follow = objectMapper.treeToValue(fields, FollowRequest.class);
+            Long timeoutMillis = follow.getTimeoutMillis();
+            if (follow.getOffset() < 0 || timeoutMillis != null && timeoutMillis < 0) {
+                return CompletableFuture.completedFuture(body);
+            }
+            wait = service.awaitFollow(follow.getPath(), follow.getOffset(),
+                                       timeoutMillis == null ? null : Duration.ofMillis(timeoutMillis), executor);
+        } catch (JsonProcessingException | RuntimeException e) {
+            return CompletableFuture.completedFuture(body);
+        }
+        return wait.handle((ready, e) -> {
+            fields.put("timeoutMillis", 0);
+            try {
+                return objectMapper.writeValueAsBytes(request);
+            } catch (JsonProcessingException writeFailure) {
+                return body;
+            }
+        });
+    }
+
+    private JsonNode parse(byte[] body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
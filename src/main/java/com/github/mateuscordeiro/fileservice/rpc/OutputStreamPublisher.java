@@ -0,0 +1,129 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+
+// Publishes a blocking writer's output as DataBuffers, emitting a chunk only once the subscriber asked for it
+final class OutputStreamPublisher {
+    interface Writer {
+        void write(OutputStream output) throws IOException;
+    }
+
+    private OutputStreamPublisher() {
+    }
+
+    static Flux<DataBuffer> publish(Writer writer, DataBufferFactory bufferFactory, int chunkSize,
+                                    Scheduler scheduler) {
+        return Flux.create(sink -> {
+            SinkOutputStream output = new SinkOutputStream(sink, bufferFactory, chunkSize);
+            sink.onRequest(output::request);
+            sink.onDispose(output::cancel);
+            scheduler.schedule(() -> {
+                try {
+                    writer.write(output);
+                    output.close();
+                    sink.complete();
+                } catch (Throwable e) {
+                    sink.error(e);
+                }
+            });
+        });
+    }
+
+    private static final class SinkOutputStream extends OutputStream {
+        private final FluxSink<DataBuffer> sink;
+        private final DataBufferFactory bufferFactory;
+        private final byte[] chunk;
+        private final Object lock = new Object();
+        private int count;
+        private long demand;
+        private boolean cancelled;
+
+        SinkOutputStream(FluxSink<DataBuffer> sink, DataBufferFactory bufferFactory, int chunkSize) {
+            this.sink = sink;
+            this.bufferFactory = bufferFactory;
+            this.chunk = new byte[chunkSize];
+        }
+
+        void request(long n) {
+            synchronized (lock) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                lock.notifyAll();
+            }
+        }
+
+        void cancel() {
+            synchronized (lock) {
+                cancelled = true;
+                lock.notifyAll();
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == chunk.length) {
+                emit();
+            }
+            chunk[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == chunk.length) {
+                    emit();
+                }
+                int n = Math.min(length, chunk.length - count);
+                System.arraycopy(bytes, offset, chunk, count, n);
+                count += n;
+                offset += n;
+                length -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (count > 0) {
+                emit();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void emit() throws IOException {
+            awaitDemand();
+            DataBuffer buffer = bufferFactory.allocateBuffer(count);
+            buffer.write(chunk, 0, count);
+            count = 0;
+            sink.next(buffer);
+        }
+
+        private void awaitDemand() throws IOException {
+            synchronized (lock) {
+                try {
+                    while (demand == 0 && !cancelled) {
+                        lock.wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the client");
+                }
+                if (cancelled) {
+                    throw new IOException("Response cancelled by the client");
+                }
+                demand--;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import com.github.mateuscordeiro.fileservice.config.ReactiveProperties;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.exception.FileNotFoundException;
+import com.github.mateuscordeiro.fileservice.exception.InvalidPathException;
+import com.github.mateuscordeiro.fileservice.rpc.dto.FileInfo;
+import com.github.mateuscordeiro.fileservice.service.FileSystemService;
+import com.github.mateuscordeiro.fileservice.util.PathUtils;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+// Same contract as FileContentController; the range is sent with sendfile and without the file's read lock
+@RestController
+@RequestMapping("/filesystem/content")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveFileContentController {
+    private final FileSystemService service;
+    private final RootPathProperties rootPathProperties;
+    private final ReactiveProperties properties;
+    private final Scheduler ioScheduler;
+
+    public ReactiveFileContentController(FileSystemService service, RootPathProperties rootPathProperties,
+                                         ReactiveProperties properties, Scheduler rpcIoScheduler) {
+        this.service = service;
+        this.rootPathProperties = rootPathProperties;
+        this.properties = properties;
+        this.ioScheduler = rpcIoScheduler;
+    }
+
+    @GetMapping
+    public Mono<Void> download(@RequestParam String path,
+                               @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+                               ServerHttpResponse response) {
+        Path file = PathUtils.resolveSafePath(PathUtils.getRoot(rootPathProperties), path);
+        return Mono.fromCallable(() -> sizeOf(path, file))
+                   .subscribeOn(ioScheduler)
+                   .flatMap(size -> send(file, size, rangeHeader, response));
+    }
+
+    // Read from the file itself, not the service's caches, so the headers match what sendfile sends
+    private long sizeOf(String path, Path file) throws IOException {
+        FileInfo info = service.getFileInfo(path);
+        if (info.isDirectory()) {
+            throw new InvalidPathException("Not a file: " + path);
+        }
+        try {
+            return Files.size(file);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(path);
+        }
+    }
+
+    private Mono<Void> send(Path file, long size, String rangeHeader, ServerHttpResponse response) {
+        long start = 0;
+        long end = size - 1;
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        List<HttpRange> ranges = FileContentController.parseRanges(rangeHeader);
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            start = range.getRangeStart(size);
+            end = range.getRangeEnd(size);
+            if (size == 0 || start >= size || start > end) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+                return response.setComplete();
+            }
+            response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+
+        long length = end - start + 1;
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentLength(length);
+        if (length <= 0) {
+            return response.setComplete();
+        }
+        if (response instanceof ZeroCopyHttpOutputMessage zeroCopy) {
+            return zeroCopy.writeWith(file, start, length);
+        }
+        long position = start;
+        return response.writeWith(DataBufferUtils.takeUntilByteCount(
+                DataBufferUtils.readAsynchronousFileChannel(
+                        () -> AsynchronousFileChannel.open(file, StandardOpenOption.READ), position,
+                        response.bufferFactory(), (int) properties.getChunkSize().toBytes()),
+                length));
+    }
+
+    @ExceptionHandler(FileNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(FileNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    @ExceptionHandler({InvalidPathException.class, IllegalArgumentException.class})
+    public ResponseEntity<String> handleInvalid(RuntimeException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
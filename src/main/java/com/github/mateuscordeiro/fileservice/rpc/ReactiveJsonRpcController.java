@@ -0,0 +1,89 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import com.github.mateuscordeiro.fileservice.config.ReactiveProperties;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+@RestController
+@RequestMapping("/filesystem")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveJsonRpcController {
+    private final RpcRequestProcessor processor;
+    private final ReactiveProperties properties;
+    private final Scheduler ioScheduler;
+    private final ResponseCompression compression;
+    private final FollowWaiter followWaiter;
+
+    public ReactiveJsonRpcController(RpcRequestProcessor processor, ReactiveProperties properties,
+                                     Scheduler rpcIoScheduler, ResponseCompression compression,
+                                     FollowWaiter followWaiter) {
+        this.processor = processor;
+        this.properties = properties;
+        this.ioScheduler = rpcIoScheduler;
+        this.compression = compression;
+        this.followWaiter = followWaiter;
+    }
+
+    @PostMapping
+    public Mono<Void> handleRpc(ServerHttpRequest request, ServerHttpResponse response) {
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        int chunkSize = (int) properties.getChunkSize().toBytes();
+        String acceptEncoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        return DataBufferUtils.join(request.getBody(), (int) properties.getMaxRequestSize().toBytes())
+                              .map(ReactiveJsonRpcController::toBytes)
+                              .defaultIfEmpty(new byte[0])
+                              .flatMap(this::awaitFollow)
+                              .flatMap(body -> response.writeWith(OutputStreamPublisher.publish(
+                                      output -> process(body, output, acceptEncoding, response),
+                                      response.bufferFactory(), chunkSize, ioScheduler)));
+    }
+
+    // A follow waits for its file here, without a thread, so the call itself then returns at once
+    private Mono<byte[]> awaitFollow(byte[] body) {
+        return Mono.fromCallable(() -> followWaiter.await(body, ioScheduler::schedule))
+                   .subscribeOn(ioScheduler)
+                   .flatMap(Mono::fromFuture);
+    }
+
+    // The response is committed with the first chunk the writer emits, so the encoding header is still settable
+    // when the compressing stream decides on it
+    private void process(byte[] body, OutputStream output, String acceptEncoding, ServerHttpResponse response)
+            throws IOException {
+        try (OutputStream encoded = compression.wrap(output, acceptEncoding, response.getHeaders()::set)) {
+            processor.process(body, encoded);
+        }
+    }
+
+    @ExceptionHandler(DataBufferLimitException.class)
+    public ResponseEntity<String> handleTooLarge(DataBufferLimitException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+    }
+
+    private static byte[] toBytes(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import com.github.mateuscordeiro.fileservice.config.ReactiveProperties;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// Tomcat stays on the classpath for the servlet transport, so Netty is declared explicitly
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTransportConfiguration {
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // The service is blocking; its calls run here so the event loop only moves bytes
+    @Bean(destroyMethod = "dispose")
+    public Scheduler rpcIoScheduler(ReactiveProperties properties) {
+        return Schedulers.newBoundedElastic(properties.getIoThreads(), properties.getQueuedTasks(), "rpc-io");
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.config.RpcProperties;
+
+@Component
+public class ResponseCompression {
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private final RpcProperties.Compression properties;
+
+    public ResponseCompression(RpcProperties rpcProperties) {
+        this.properties = rpcProperties.getCompression();
+    }
+
+    // setHeader receives Content-Encoding only once the response turns out longer than min-size
+    public OutputStream wrap(OutputStream output, String acceptEncoding, BiConsumer<String, String> setHeader) {
+        if (!properties.isEnabled()) {
+            return output;
+        }
+        setHeader.accept(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String encoding = negotiate(acceptEncoding);
+        if (encoding == null) {
+            return output;
+        }
+        return new CompressingOutputStream(output, encoding, properties.getLevel(),
+                                           (int) properties.getMinSize().toBytes(),
+                                           () -> setHeader.accept(HttpHeaders.CONTENT_ENCODING, encoding));
+    }
+
+    // Highest q-value wins, gzip on a tie
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.split(";");
+            String coding = fields[0].trim().toLowerCase(Locale.ROOT);
+            double q = qualityOf(fields);
+            switch (coding) {
+                case GZIP, "x-gzip" -> gzip = Math.max(gzip, q);
+                case DEFLATE -> deflate = Math.max(deflate, q);
+                case "*" -> wildcard = q;
+                default -> {
+                }
+            }
+        }
+        gzip = gzip < 0 ? wildcard : gzip;
+        deflate = deflate < 0 ? wildcard : deflate;
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    private static double qualityOf(String[] fields) {
+        for (int i = 1; i < fields.length; i++) {
+            String parameter = fields[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
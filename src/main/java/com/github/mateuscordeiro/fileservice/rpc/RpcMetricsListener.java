@@ -0,0 +1,57 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.googlecode.jsonrpc4j.ErrorResolver;
+import com.googlecode.jsonrpc4j.InvocationListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Component
+public class RpcMetricsListener implements InvocationListener {
+    private final MeterRegistry meterRegistry;
+    private final ErrorResolver errorResolver;
+
+    public RpcMetricsListener(MeterRegistry meterRegistry, FileSystemErrorResolver errorResolver) {
+        this.meterRegistry = meterRegistry;
+        this.errorResolver = errorResolver;
+    }
+
+    @Override
+    public void willInvoke(Method method, List<JsonNode> arguments) {
+    }
+
+    @Override
+    public void didInvoke(Method method, List<JsonNode> arguments, Object result, Throwable t, long duration) {
+        String code = "0";
+        if (t != null) {
+            Throwable cause = unwrap(t);
+            code = String.valueOf(errorResolver.resolveError(cause, method, arguments).code);
+            meterRegistry.counter("fileservice.rpc.errors", "method", method.getName(), "code", code).increment();
+        }
+        Timer.builder("fileservice.rpc.requests")
+             .tag("method", method.getName())
+             .tag("outcome", t == null ? "success" : "error")
+             .tag("code", code)
+             .publishPercentileHistogram()
+             .register(meterRegistry)
+             .record(duration, TimeUnit.MILLISECONDS);
+    }
+
+    private Throwable unwrap(Throwable t) {
+        if (t instanceof InvocationTargetException e && e.getTargetException() != null) {
+            return e.getTargetException();
+        }
+        if (t instanceof UndeclaredThrowableException e && e.getUndeclaredThrowable() != null) {
+            return e.getUndeclaredThrowable();
+        }
+        return t;
+    }
+}
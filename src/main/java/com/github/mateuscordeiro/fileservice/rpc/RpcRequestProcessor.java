@@ -0,0 +1,75 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.googlecode.jsonrpc4j.JsonRpcServer;
+
+// Shared by the servlet and reactive controllers
+@Component
+public class RpcRequestProcessor {
+    private static final byte[] WALK_METHOD = "\"walk\"".getBytes(StandardCharsets.US_ASCII);
+
+    private final JsonRpcServer jsonRpcServer;
+    private final BatchRequestDispatcher batchDispatcher;
+    private final WalkStreamer walkStreamer;
+    private final ObjectMapper objectMapper;
+
+    public RpcRequestProcessor(FileSystemRpcHandler rpcHandler, ObjectMapper objectMapper,
+                               BatchRequestDispatcher batchDispatcher, WalkStreamer walkStreamer,
+                               FileSystemErrorResolver errorResolver, RpcMetricsListener metricsListener) {
+        this.batchDispatcher = batchDispatcher;
+        this.walkStreamer = walkStreamer;
+        this.objectMapper = objectMapper;
+        this.jsonRpcServer = new JsonRpcServer(objectMapper, rpcHandler, FileSystemRpcHandler.class);
+        this.jsonRpcServer.setErrorResolver(errorResolver);
+        this.jsonRpcServer.setInvocationListener(metricsListener);
+    }
+
+    public void process(byte[] body, OutputStream output) throws IOException {
+        JsonNode request = parseIfIntercepted(body);
+        if (request != null && batchDispatcher.supports(request)) {
+            batchDispatcher.dispatch(jsonRpcServer, request, output);
+        } else if (request != null && walkStreamer.supports(request)) {
+            walkStreamer.stream(request, output);
+        } else {
+            jsonRpcServer.handleRequest(new ByteArrayInputStream(body), output);
+        }
+    }
+
+    // Everything but batches and walks, including unparseable bodies, is left to jsonrpc4j
+    private JsonNode parseIfIntercepted(byte[] body) {
+        for (byte b : body) {
+            if (!Character.isWhitespace(b)) {
+                if (b != '[' && !(b == '{' && contains(body, WALK_METHOD))) {
+                    return null;
+                }
+                break;
+            }
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static boolean contains(byte[] body, byte[] token) {
+        outer:
+        for (int i = 0; i <= body.length - token.length; i++) {
+            for (int j = 0; j < token.length; j++) {
+                if (body[i + j] != token[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
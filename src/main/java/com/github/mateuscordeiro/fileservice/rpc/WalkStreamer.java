@@ -0,0 +1,111 @@
+package com.github.mateuscordeiro.fileservice.rpc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.WalkRequest;
+import com.github.mateuscordeiro.fileservice.service.FileSystemService;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.googlecode.jsonrpc4j.ErrorResolver.JsonError;
+
+// Streams a walk response entry by entry, in the same shape as a buffered walk
+@Component
+public class WalkStreamer {
+    private static final String METHOD = "walk";
+
+    private final FileSystemService service;
+    private final ObjectMapper objectMapper;
+    private final FileSystemErrorResolver errorResolver;
+
+    public WalkStreamer(FileSystemService service, ObjectMapper objectMapper, FileSystemErrorResolver errorResolver) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+        this.errorResolver = errorResolver;
+    }
+
+    // Notifications have no response to stream into, so they are left to jsonrpc4j
+    public boolean supports(JsonNode request) {
+        return request.isObject() && request.hasNonNull("id") && METHOD.equals(request.path("method").asText());
+    }
+
+    public void stream(JsonNode request, OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        JsonNode id = request.get("id");
+        boolean[] started = {false};
+        try {
+            WalkRequest walkRequest = toWalkRequest(request.get("params"));
+            FileSystemRpcHandler.validate(walkRequest);
+            boolean truncated = service.walk(walkRequest.getPath(), FileSystemRpcHandler.maxDepthOf(walkRequest),
+                                             walkRequest.getInclude(), walkRequest.getExclude(),
+                                             FileSystemRpcHandler.limitOf(walkRequest), info -> {
+                        try {
+                            if (!started[0]) {
+                                started[0] = true;
+                                writeResultStart(generator, id);
+                            }
+                            generator.writeObject(info);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            if (!started[0]) {
+                started[0] = true;
+                writeResultStart(generator, id);
+            }
+            generator.writeEndArray();
+            generator.writeBooleanField("truncated", truncated);
+            generator.writeEndObject();
+            generator.writeEndObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            if (started[0]) {
+                throw e; // the response is already partly written
+            }
+            writeError(generator, id, errorResolver.resolveError(e, null, null));
+        }
+        generator.flush();
+    }
+
+    private WalkRequest toWalkRequest(JsonNode params) {
+        JsonNode node = params != null && params.isArray() ? params.get(0) : params;
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("walk expects a single object parameter");
+        }
+        try {
+            return objectMapper.treeToValue(node, WalkRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage());
+        }
+    }
+
+    private void writeResultStart(JsonGenerator generator, JsonNode id) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("jsonrpc", "2.0");
+        generator.writeFieldName("id");
+        generator.writeTree(id);
+        generator.writeObjectFieldStart("result");
+        generator.writeArrayFieldStart("entries");
+    }
+
+    private void writeError(JsonGenerator generator, JsonNode id, JsonError error) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("jsonrpc", "2.0");
+        generator.writeFieldName("id");
+        generator.writeTree(id);
+        generator.writeObjectFieldStart("error");
+        generator.writeNumberField("code", error.code);
+        generator.writeStringField("message", error.message);
+        if (error.data != null) {
+            generator.writeObjectField("data", error.data);
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+}
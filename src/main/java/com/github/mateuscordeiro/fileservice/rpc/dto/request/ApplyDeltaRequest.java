@@ -0,0 +1,37 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.request;
+
+import java.util.List;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApplyDeltaRequest {
+    @NotBlank
+    private String path;
+    // Version and block size from the getSignatures response the delta was computed against
+    @NotBlank
+    private String baseVersion;
+    @NotNull
+    private Long blockSize;
+    @NotNull
+    private List<Op> ops;
+
+    // Either block (and optionally count, default 1) to copy base blocks, or base64 data to insert literal bytes
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Op {
+        private Long block;
+        private Integer count;
+        private byte[] data;
+    }
+}
@@ -14,4 +14,7 @@ import lombok.NoArgsConstructor;
 public class DeleteRequest {
     @NotBlank
     private String path;
-}
\ No newline at end of file
+
+    // Run as a background job and return its status right away
+    private boolean async;
+}
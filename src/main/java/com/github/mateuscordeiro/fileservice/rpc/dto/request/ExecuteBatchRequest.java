@@ -0,0 +1,32 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.request;
+
+import java.util.List;
+import javax.validation.constraints.NotNull;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExecuteBatchRequest {
+    @NotNull
+    private List<Operation> operations;
+
+    // op is create, append, move, copy or delete; each takes the fields of the matching single request
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Operation {
+        private String op;
+        private String path;
+        private String source;
+        private String destination;
+        private String data;
+        private boolean directory;
+    }
+}
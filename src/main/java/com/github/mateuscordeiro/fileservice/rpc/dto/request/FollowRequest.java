@@ -0,0 +1,27 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.request;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FollowRequest {
+    @NotBlank
+    private String path;
+
+    @Min(0)
+    private long offset;
+
+    @Min(1)
+    private int length;
+
+    // Capped by fileservice.follow.max-wait, which is also the default
+    private Long timeoutMillis;
+}
@@ -17,4 +17,7 @@ public class MoveRequest {
 
     @NotBlank
     private String destination;
-}
\ No newline at end of file
+
+    // Run as a background job and return its status right away
+    private boolean async;
+}
@@ -0,0 +1,34 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.request;
+
+import java.util.List;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReadRangesRequest {
+    @NotBlank
+    private String path;
+
+    @NotEmpty
+    private List<Range> ranges;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Range {
+        @Min(0)
+        private long offset;
+
+        @Min(1)
+        private int length;
+    }
+}
@@ -17,7 +17,7 @@ public class ReadRequest {
     private String path;
 
     @Min(0)
-    private int offset;
+    private long offset;
 
     @Min(1)
     private int length;
@@ -0,0 +1,19 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.request;
+
+import javax.validation.constraints.NotBlank;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SignatureRequest {
+    @NotBlank
+    private String path;
+    // Defaults to fileservice.rpc.delta.default-block-size
+    private Long blockSize;
+}
@@ -0,0 +1,15 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VerifyIndexRequest {
+    // Replace the index with the freshly walked tree when it differs
+    private boolean repair;
+}
@@ -0,0 +1,32 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.request;
+
+import java.util.List;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalkRequest {
+    @NotBlank
+    private String path;
+
+    // Levels below path to visit; unlimited when absent
+    @Min(1)
+    private Integer maxDepth;
+
+    // Globs matched against the entry path relative to path
+    private List<String> include;
+
+    private List<String> exclude;
+
+    // Entries to return at most; unlimited when absent
+    @Min(1)
+    private Long limit;
+}
@@ -0,0 +1,30 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChecksumResponse {
+    private long size;
+    private long blockSize;
+    // SHA-256 over the concatenated block SHA-256 digests, hex encoded
+    private String digest;
+    private List<Block> blocks;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Block {
+        private long offset;
+        private int length;
+        private String crc32c;
+        private String sha256;
+    }
+}
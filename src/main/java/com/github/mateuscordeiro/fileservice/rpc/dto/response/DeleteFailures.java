@@ -0,0 +1,17 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.response;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteFailures {
+    private long count;
+    // Set when failures holds only the first of them
+    private boolean truncated;
+    private Map<String, String> failures;
+}
@@ -0,0 +1,13 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeltaResult {
+    private long size;
+    private String version;
+}
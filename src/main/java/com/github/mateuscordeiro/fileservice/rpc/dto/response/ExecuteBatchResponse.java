@@ -0,0 +1,33 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecuteBatchResponse {
+    // One result per operation, in request order
+    private List<Result> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private boolean ok;
+        // The error the operation would have returned as a single request, when it failed
+        private OperationError error;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OperationError {
+        private int code;
+        private String message;
+        private Object data;
+    }
+}
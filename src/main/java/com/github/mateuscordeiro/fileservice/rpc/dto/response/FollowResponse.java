@@ -0,0 +1,16 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowResponse {
+    // Empty when the wait timed out or the file is now shorter than the offset
+    private String data;
+    // Offset to follow from next
+    private long nextOffset;
+    private long size;
+}
@@ -0,0 +1,20 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IndexReport {
+    private boolean enabled;
+    private long entries;
+    // Paths, relative to the root, whose indexed entry differs from the filesystem
+    private List<String> mismatches;
+    private boolean repaired;
+}
@@ -0,0 +1,30 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobStatus {
+    private String id;
+    private String operation;
+    // QUEUED, RUNNING, SUCCEEDED, FAILED or CANCELLED
+    private String state;
+    private long filesProcessed;
+    private long bytesProcessed;
+    // The error the operation would have returned synchronously, when it failed
+    private JobError error;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class JobError {
+        private int code;
+        private String message;
+        private Object data;
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadRangesResponse {
+    // Base64 encoded bytes of each requested range, in request order
+    private List<byte[]> data;
+}
@@ -0,0 +1,28 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SignatureResponse {
+    private long size;
+    private long blockSize;
+    // Identifies the signed content; applyDelta refuses to run against any other version
+    private String version;
+    private List<Block> blocks;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Block {
+        private String rolling;
+        private String sha256;
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.mateuscordeiro.fileservice.rpc.dto.response;
+
+import java.util.List;
+
+import com.github.mateuscordeiro.fileservice.rpc.dto.FileInfo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalkResponse {
+    private List<FileInfo> entries;
+    // More entries matched than were returned
+    private boolean truncated;
+}
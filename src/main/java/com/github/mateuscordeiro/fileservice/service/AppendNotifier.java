@@ -0,0 +1,201 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.config.FollowProperties;
+import com.github.mateuscordeiro.fileservice.io.FileTreeWatcher;
+
+// Lets follow requests sleep until a file changes, signalled by the service or the FileTreeWatcher
+@Component
+public class AppendNotifier {
+    private final FollowProperties properties;
+    private final FileTreeWatcher watcher;
+    private final Map<Path, Signal> signals = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private volatile boolean subscribed;
+
+    public AppendNotifier(FollowProperties properties, FileTreeWatcher watcher) {
+        this.properties = properties;
+        this.watcher = watcher;
+    }
+
+    public void signal(Path path) {
+        Signal signal = signals.get(path.toAbsolutePath().normalize());
+        if (signal != null) {
+            signal.fire();
+        }
+    }
+
+    // Waits until ready holds or timeout (maxWait when null) passes, and returns ready's last answer
+    public boolean await(Path path, Duration timeout, BooleanSupplier ready) throws InterruptedException {
+        if (waiting.incrementAndGet() > properties.getMaxWaiters()) {
+            waiting.decrementAndGet();
+            return ready.getAsBoolean();
+        }
+        Path key = path.toAbsolutePath().normalize();
+        Signal signal = acquire(key);
+        try {
+            long deadline = deadline(timeout);
+            long pollNanos = properties.getPollInterval().toNanos();
+            while (true) {
+                // Read before checking, so a signal that lands in between ends the wait at once
+                long seen = signal.generation();
+                if (ready.getAsBoolean()) {
+                    return true;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                signal.awaitChange(seen, Math.min(remaining, pollNanos));
+            }
+        } finally {
+            release(key);
+        }
+    }
+
+    // Same as await, but holds no thread while waiting: ready is checked on executor after every signal and poll
+    public CompletableFuture<Boolean> awaitAsync(Path path, Duration timeout, BooleanSupplier ready,
+                                                 Executor executor) {
+        if (waiting.incrementAndGet() > properties.getMaxWaiters()) {
+            waiting.decrementAndGet();
+            return CompletableFuture.supplyAsync(ready::getAsBoolean, executor);
+        }
+        Path key = path.toAbsolutePath().normalize();
+        Signal signal = acquire(key);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        result.whenComplete((answer, e) -> release(key));
+        long deadline = deadline(timeout);
+        recheck(signal, deadline, ready, executor, result);
+        return result;
+    }
+
+    private void recheck(Signal signal, long deadline, BooleanSupplier ready, Executor executor,
+                         CompletableFuture<Boolean> result) {
+        try {
+            executor.execute(() -> check(signal, deadline, ready, executor, result));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void check(Signal signal, long deadline, BooleanSupplier ready, Executor executor,
+                       CompletableFuture<Boolean> result) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            long seen = signal.generation();
+            if (ready.getAsBoolean()) {
+                result.complete(true);
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                result.complete(false);
+                return;
+            }
+            long wait = Math.min(remaining, properties.getPollInterval().toNanos());
+            CompletableFuture.anyOf(signal.next(seen), result,
+                                    CompletableFuture.runAsync(() -> { }, delayed(wait)))
+                             .whenComplete((ignored, e) -> recheck(signal, deadline, ready, executor, result));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private static Executor delayed(long nanos) {
+        return CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Signal acquire(Path key) {
+        subscribe();
+        return signals.compute(key, (p, existing) -> {
+            Signal acquired = existing != null ? existing : new Signal();
+            acquired.users++;
+            return acquired;
+        });
+    }
+
+    private void release(Path key) {
+        signals.computeIfPresent(key, (p, existing) -> --existing.users == 0 ? null : existing);
+        waiting.decrementAndGet();
+    }
+
+    private long deadline(Duration timeout) {
+        Duration wait = timeout == null || timeout.compareTo(properties.getMaxWait()) > 0
+                ? properties.getMaxWait() : timeout;
+        return System.nanoTime() + wait.toNanos();
+    }
+
+    // On the first follow, so deployments that never follow don't watch the tree; polling covers a degraded watcher
+    private void subscribe() {
+        if (subscribed || !properties.isWatch()) {
+            return;
+        }
+        synchronized (this) {
+            if (!subscribed) {
+                watcher.subscribe(change -> changed(change.path()));
+                subscribed = true;
+            }
+        }
+    }
+
+    // A directory event may stand for any path below it, e.g. the root after an overflow
+    private void changed(Path changed) {
+        Path normalized = changed.toAbsolutePath().normalize();
+        signals.forEach((path, signal) -> {
+            if (path.startsWith(normalized)) {
+                signal.fire();
+            }
+        });
+    }
+
+    private static final class Signal {
+        // Guarded by the signals map's compute calls
+        private int users;
+        private long generation;
+        private CompletableFuture<Void> next = new CompletableFuture<>();
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        // Completes once a signal lands after seen
+        synchronized CompletableFuture<Void> next(long seen) {
+            return generation != seen ? CompletableFuture.completedFuture(null) : next;
+        }
+
+        void fire() {
+            CompletableFuture<Void> fired;
+            synchronized (this) {
+                generation++;
+                notifyAll();
+                fired = next;
+                next = new CompletableFuture<>();
+            }
+            fired.complete(null);
+        }
+
+        synchronized void awaitChange(long seen, long timeoutNanos) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (generation == seen) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+    }
+}
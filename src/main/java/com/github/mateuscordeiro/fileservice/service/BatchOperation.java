@@ -0,0 +1,34 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import java.util.List;
+
+// One mutation of an executeBatch call; for move and copy, path is the source
+public record BatchOperation(Type type, String path, String destination, String data, boolean directory) {
+    public enum Type {
+        CREATE, APPEND, MOVE, COPY, DELETE
+    }
+
+    public static BatchOperation create(String path, boolean directory) {
+        return new BatchOperation(Type.CREATE, path, null, null, directory);
+    }
+
+    public static BatchOperation append(String path, String data) {
+        return new BatchOperation(Type.APPEND, path, null, data, false);
+    }
+
+    public static BatchOperation move(String source, String destination) {
+        return new BatchOperation(Type.MOVE, source, destination, null, false);
+    }
+
+    public static BatchOperation copy(String source, String destination) {
+        return new BatchOperation(Type.COPY, source, destination, null, false);
+    }
+
+    public static BatchOperation delete(String path) {
+        return new BatchOperation(Type.DELETE, path, null, null, false);
+    }
+
+    public List<String> paths() {
+        return destination == null ? List.of(path) : List.of(path, destination);
+    }
+}
@@ -0,0 +1,208 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.config.ChecksumProperties;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.io.BlockDigest;
+import com.github.mateuscordeiro.fileservice.io.FileIOManager;
+import com.github.mateuscordeiro.fileservice.util.PathUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Block checksums in a sidecar per file, reused while size and mtime match; appends rehash only the tail
+@Slf4j
+@Component
+public class ChecksumCache {
+    private static final int FORMAT = 1;
+    private static final int SHA256_LENGTH = 32;
+    private static final String SIDECAR_SUFFIX = ".sum";
+    private static final String DIRECTORY_SUFFIX = ".d";
+
+    private final ChecksumProperties properties;
+    private final RootPathProperties rootPathProperties;
+    private final FileIOManager fileIOManager;
+    // Files with a sidecar written by this process -> appended since; guarded by itself
+    private final Map<Path, Boolean> appended;
+
+    public ChecksumCache(ChecksumProperties properties, RootPathProperties rootPathProperties,
+                         FileIOManager fileIOManager) {
+        this.properties = properties;
+        this.rootPathProperties = rootPathProperties;
+        this.fileIOManager = fileIOManager;
+        this.appended = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Boolean> eldest) {
+                return size() > properties.getTrackedFiles();
+            }
+        };
+    }
+
+    public record FileChecksum(long size, long blockSize, byte[] digest, List<BlockDigest> blocks) {
+    }
+
+    private record Sidecar(long size, Instant modified, List<BlockDigest> blocks) {
+    }
+
+    // The caller holds the file's shared lock, so the file cannot grow while it is hashed
+    public FileChecksum get(Path file) throws IOException {
+        long blockSize = properties.getBlockSize().toBytes();
+        BasicFileAttributes attrs = fileIOManager.readAttributes(file);
+        Instant modified = attrs.lastModifiedTime().toInstant();
+        Sidecar sidecar = read(file, blockSize);
+        if (sidecar != null && sidecar.size() == attrs.size() && sidecar.modified().equals(modified)) {
+            return toChecksum(attrs.size(), blockSize, sidecar.blocks());
+        }
+
+        int reused = 0;
+        if (sidecar != null && isAppended(file) && attrs.size() >= sidecar.size()) {
+            reused = (int) (sidecar.size() / blockSize);
+        }
+        List<BlockDigest> blocks = new ArrayList<>(sidecar == null ? List.of() : sidecar.blocks().subList(0, reused));
+        blocks.addAll(fileIOManager.digestBlocks(file, attrs.size(), blockSize, reused));
+
+        write(file, blockSize, new Sidecar(attrs.size(), modified, blocks));
+        synchronized (appended) {
+            appended.put(file, false);
+        }
+        return toChecksum(attrs.size(), blockSize, blocks);
+    }
+
+    // Called with the file's write lock held
+    public void appended(Path file) {
+        synchronized (appended) {
+            appended.computeIfPresent(file, (path, previous) -> true);
+        }
+    }
+
+    // For mutations other than append; drops everything under path too
+    public void invalidate(Path path) {
+        synchronized (appended) {
+            appended.keySet().removeIf(file -> file.startsWith(path));
+        }
+        // Sidecars live outside the root, so they are removed directly rather than through the file I/O manager
+        Path mirrored = mirrorOf(path);
+        try {
+            if (!path.equals(PathUtils.getRoot(rootPathProperties))) {
+                Files.deleteIfExists(sidecarOf(path));
+            }
+            if (Files.isDirectory(mirrored)) {
+                deleteTree(mirrored);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // Stale sidecars are harmless: they no longer match the file's size and mtime
+            log.debug("Failed to drop checksum sidecars of {}", path, e);
+        }
+    }
+
+    private boolean isAppended(Path file) {
+        synchronized (appended) {
+            return Boolean.TRUE.equals(appended.get(file));
+        }
+    }
+
+    // Directories and sidecars get different suffixes, so a sidecar never collides with a directory's mirror
+    private Path sidecarOf(Path file) {
+        return mirrorOf(file.getParent()).resolve(file.getFileName() + SIDECAR_SUFFIX);
+    }
+
+    private Path mirrorOf(Path directory) {
+        Path mirrored = properties.getSidecarDir();
+        for (Path name : PathUtils.getRoot(rootPathProperties).relativize(directory)) {
+            if (!name.toString().isEmpty()) {
+                mirrored = mirrored.resolve(name + DIRECTORY_SUFFIX);
+            }
+        }
+        return mirrored;
+    }
+
+    private static void deleteTree(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private Sidecar read(Path file, long blockSize) {
+        Path sidecar = sidecarOf(file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != FORMAT || in.readLong() != blockSize) {
+                return null;
+            }
+            long size = in.readLong();
+            Instant modified = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            int count = in.readInt();
+            List<BlockDigest> blocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = in.readInt();
+                int crc32c = in.readInt();
+                byte[] sha256 = in.readNBytes(SHA256_LENGTH);
+                blocks.add(new BlockDigest(i * blockSize, length, crc32c, sha256));
+            }
+            return new Sidecar(size, modified, blocks);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.debug("Ignoring unreadable checksum sidecar {}", sidecar, e);
+            return null;
+        }
+    }
+
+    private void write(Path file, long blockSize, Sidecar sidecar) {
+        Path target = sidecarOf(file);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FORMAT);
+                out.writeLong(blockSize);
+                out.writeLong(sidecar.size());
+                out.writeLong(sidecar.modified().getEpochSecond());
+                out.writeInt(sidecar.modified().getNano());
+                out.writeInt(sidecar.blocks().size());
+                for (BlockDigest block : sidecar.blocks()) {
+                    out.writeInt(block.length());
+                    out.writeInt(block.crc32c());
+                    out.write(block.sha256());
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The checksum is still returned; it is just computed again next time
+            log.warn("Failed to write checksum sidecar {}", target, e);
+        }
+    }
+
+    private static FileChecksum toChecksum(long size, long blockSize, List<BlockDigest> blocks) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (BlockDigest block : blocks) {
+                digest.update(block.sha256());
+            }
+            return new FileChecksum(size, blockSize, digest.digest(), blocks);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
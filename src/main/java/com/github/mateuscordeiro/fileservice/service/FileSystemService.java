@@ -1,8 +1,22 @@
 package com.github.mateuscordeiro.fileservice.service;
 
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
 
+import com.github.mateuscordeiro.fileservice.io.ByteRange;
+import com.github.mateuscordeiro.fileservice.io.DeltaOp;
+import com.github.mateuscordeiro.fileservice.io.OperationProgress;
 import com.github.mateuscordeiro.fileservice.rpc.dto.FileInfo;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.ChecksumResponse;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.DeltaResult;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.FollowResponse;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.IndexReport;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.SignatureResponse;
 
 public interface FileSystemService {
     FileInfo getFileInfo(String path);
@@ -13,11 +27,42 @@ public interface FileSystemService {
 
     void delete(String path);
 
+    // Progress-reporting variants used by background jobs; a cancelled progress ends them with a CancellationException
+    void delete(String path, OperationProgress progress);
+
     void move(String sourcePath, String destinationPath);
 
     void copy(String sourcePath, String destinationPath);
 
+    void copy(String sourcePath, String destinationPath, OperationProgress progress);
+
     void append(String path, String data);
 
-    String read(String path, int offset, int length);
+    String read(String path, long offset, int length);
+
+    // Waits up to timeout for the file to grow past offset, then returns what was appended, up to length bytes
+    FollowResponse follow(String path, long offset, int length, Duration timeout);
+
+    // follow's wait without a thread: completes once the size differs from offset or timeout passes
+    CompletableFuture<Boolean> awaitFollow(String path, long offset, Duration timeout, Executor executor);
+
+    // Raw bytes of each range, in request order; ranges past the end of the file come back short or empty
+    List<byte[]> readRanges(String path, List<ByteRange> ranges);
+
+    // range picks the bytes to send from the file's current size, read under the same lock as the transfer;
+    // null sends nothing
+    long transferTo(String path, LongFunction<ByteRange> range, WritableByteChannel target);
+
+    // Hands every matching entry below path to the consumer; returns whether the limit cut the walk short
+    boolean walk(String path, int maxDepth, List<String> include, List<String> exclude, long limit,
+                 Consumer<FileInfo> consumer);
+
+    ChecksumResponse checksum(String path);
+
+    SignatureResponse signatures(String path, long blockSize);
+
+    // Builds a new version from the base's blocks and literal bytes and swaps it in, if the base is still baseVersion
+    DeltaResult applyDelta(String path, String baseVersion, long blockSize, List<DeltaOp> ops);
+
+    IndexReport verifyIndex(boolean repair);
 }
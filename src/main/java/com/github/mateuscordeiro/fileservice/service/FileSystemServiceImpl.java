@@ -1,47 +1,93 @@
 package com.github.mateuscordeiro.fileservice.service;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
 
 import org.springframework.stereotype.Service;
+import com.github.mateuscordeiro.fileservice.concurrency.AppendCoalescer;
 import com.github.mateuscordeiro.fileservice.concurrency.FileConcurrencyManager;
 import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.exception.DeleteFailedException;
 import com.github.mateuscordeiro.fileservice.exception.FileAlreadyExistsException;
 import com.github.mateuscordeiro.fileservice.exception.FileNotFoundException;
 import com.github.mateuscordeiro.fileservice.exception.InvalidPathException;
+import com.github.mateuscordeiro.fileservice.exception.VersionConflictException;
+import com.github.mateuscordeiro.fileservice.io.BlockSignature;
+import com.github.mateuscordeiro.fileservice.io.ByteRange;
+import com.github.mateuscordeiro.fileservice.io.DeltaOp;
 import com.github.mateuscordeiro.fileservice.io.FileIOManager;
+import com.github.mateuscordeiro.fileservice.io.OperationCancelledException;
+import com.github.mateuscordeiro.fileservice.io.OperationProgress;
+import com.github.mateuscordeiro.fileservice.io.PartialDeleteException;
 import com.github.mateuscordeiro.fileservice.rpc.dto.FileInfo;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.ChecksumResponse;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.DeltaResult;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.FollowResponse;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.IndexReport;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.SignatureResponse;
+import com.github.mateuscordeiro.fileservice.service.ChecksumCache.FileChecksum;
+import com.github.mateuscordeiro.fileservice.service.NamespaceIndex.IndexEntry;
 import com.github.mateuscordeiro.fileservice.util.PathUtils;
 import com.github.mateuscordeiro.fileservice.validation.ValidationUtils;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class FileSystemServiceImpl implements FileSystemService {
     private final RootPathProperties rootPathProperties;
     private final FileIOManager fileIOManager;
     private final FileConcurrencyManager fileConcurrencyManager;
+    private final AppendCoalescer appendCoalescer;
+    private final MetadataCache metadataCache;
+    private final NamespaceIndex namespaceIndex;
+    private final ChecksumCache checksumCache;
+    private final AppendNotifier appendNotifier;
 
     @Override
     public FileInfo getFileInfo(String path) {
-        Path file = resolve(path);
-        if (!fileIOManager.exists(file)) {
-            throw new FileNotFoundException(path);
+        Path root = PathUtils.getRoot(rootPathProperties);
+        Path file = resolve(root, path);
+        return metadataCache.getFileInfo(file, () -> loadFileInfo(root, file, path));
+    }
+
+    private FileInfo loadFileInfo(Path root, Path file, String path) {
+        Optional<IndexEntry> indexed = namespaceIndex.lookup(file);
+        if (indexed.isPresent()) {
+            if (!indexed.get().exists()) {
+                throw new FileNotFoundException(path);
+            }
+            return toFileInfo(indexed.get().name(), root.relativize(file).toString(), indexed.get().directory(),
+                              indexed.get().size());
         }
         try {
-            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
-            return FileInfo.builder()
-                           .name(file.getFileName().toString())
-                           .path(PathUtils.getRoot(rootPathProperties).relativize(file).toString())
-                           .size(attrs.isDirectory() ? 0L : attrs.size())
-                           .directory(attrs.isDirectory())
-                           .build();
+            BasicFileAttributes attrs = fileIOManager.readAttributes(file);
+            return toFileInfo(file.getFileName().toString(), root.relativize(file).toString(), attrs);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(path);
         } catch (IOException e) {
             throw new RuntimeException("Failed to read file info: " + path, e);
         }
@@ -49,18 +95,40 @@ public class FileSystemServiceImpl implements FileSystemService {
 
     @Override
     public List<FileInfo> listChildren(String path) {
-        Path directory = resolve(path);
-        if (!fileIOManager.exists(directory)) {
-            throw new FileNotFoundException(path);
-        }
-        if (!fileIOManager.isDirectory(directory)) {
-            throw new InvalidPathException("Not a directory: " + path);
+        Path root = PathUtils.getRoot(rootPathProperties);
+        Path directory = resolve(root, path);
+        return metadataCache.getChildren(directory, () -> loadChildren(root, directory, path));
+    }
+
+    private List<FileInfo> loadChildren(Path root, Path directory, String path) {
+        Optional<List<IndexEntry>> indexed = namespaceIndex.children(directory);
+        if (indexed.isEmpty()) {
+            try {
+                if (!fileIOManager.readAttributes(directory).isDirectory()) {
+                    throw new InvalidPathException("Not a directory: " + path);
+                }
+            } catch (NoSuchFileException e) {
+                throw new FileNotFoundException(path);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read file info: " + path, e);
+            }
         }
 
-        try (Stream<Path> stream = fileIOManager.listDirectory(directory)) {
-            return stream
-                    .map(p -> getFileInfo(PathUtils.getRoot(rootPathProperties).relativize(p).toString()))
-                    .collect(Collectors.toList());
+        // Entries come from the validated parent, so they are built straight from the listing
+        String parent = root.relativize(directory).toString();
+        String prefix = parent.isEmpty() ? "" : parent + directory.getFileSystem().getSeparator();
+        if (indexed.isPresent()) {
+            return indexed.get().stream()
+                          .filter(entry -> !fileIOManager.isInternal(directory.resolve(entry.name())))
+                          .map(entry -> toFileInfo(entry.name(), prefix + entry.name(), entry.directory(),
+                                                   entry.size()))
+                          .toList();
+        }
+        try {
+            return fileIOManager.listDirectory(directory, (entry, attrs) -> {
+                String name = entry.getFileName().toString();
+                return fileIOManager.isInternal(entry) ? null : toFileInfo(name, prefix + name, attrs);
+            }).stream().filter(Objects::nonNull).toList();
         } catch (IOException e) {
             throw new RuntimeException("Failed to list children of: " + path, e);
         }
@@ -72,7 +140,7 @@ public class FileSystemServiceImpl implements FileSystemService {
         Path file = resolve(path);
 
         try {
-            if (Files.exists(file)) {
+            if (exists(file)) {
                 throw new FileAlreadyExistsException(path);
             }
             if (isDirectory) {
@@ -85,21 +153,42 @@ public class FileSystemServiceImpl implements FileSystemService {
             }
         } catch (IOException e) {
             throw new RuntimeException("Failed to create: " + path, e);
+        } finally {
+            namespaceIndex.refresh(file);
+            metadataCache.invalidate(file, false);
         }
     }
 
     @Override
     public void delete(String path) {
+        delete(path, new OperationProgress());
+    }
+
+    @Override
+    public void delete(String path, OperationProgress progress) {
         ValidationUtils.validateWritablePath(path);
         Path file = resolve(path);
 
-        if (!fileIOManager.exists(file)) {
+        if (!exists(file)) {
             throw new FileNotFoundException(path);
         }
         try {
-            fileIOManager.deleteRecursively(file);
+            fileIOManager.deleteRecursively(file, progress);
+        } catch (OperationCancelledException e) {
+            throw new CancellationException("Delete cancelled: " + path);
+        } catch (PartialDeleteException e) {
+            Path root = PathUtils.getRoot(rootPathProperties);
+            Map<String, String> failures = new LinkedHashMap<>();
+            e.getFailures().forEach((failed, cause) -> failures.put(root.relativize(failed).toString(),
+                                                                    String.valueOf(cause)));
+            throw new DeleteFailedException(path, failures, e.getFailureCount());
         } catch (IOException e) {
             throw new RuntimeException("Failed to delete: " + path, e);
+        } finally {
+            namespaceIndex.refresh(file);
+            metadataCache.invalidate(file, true);
+            checksumCache.invalidate(file);
+            appendNotifier.signal(file);
         }
     }
 
@@ -112,11 +201,11 @@ public class FileSystemServiceImpl implements FileSystemService {
         Path destinationFile = resolve(destination);
 
         try {
-            if (!fileIOManager.exists(sourceFile)) {
+            if (!exists(sourceFile)) {
                 throw new FileNotFoundException(source);
             }
 
-            if (fileIOManager.isDirectory(destinationFile) && !fileIOManager.isEmptyDirectory(destinationFile)) {
+            if (isDirectory(destinationFile) && !fileIOManager.isEmptyDirectory(destinationFile)) {
                 throw new FileAlreadyExistsException("Destination directory is not empty: " + destination);
             }
 
@@ -126,23 +215,37 @@ public class FileSystemServiceImpl implements FileSystemService {
             fileIOManager.move(sourceFile, destinationFile);
         } catch (IOException e) {
             throw new RuntimeException("Failed to move from " + source + " to " + destination, e);
+        } finally {
+            namespaceIndex.refresh(sourceFile);
+            namespaceIndex.refresh(destinationFile);
+            metadataCache.invalidate(sourceFile, true);
+            metadataCache.invalidate(destinationFile, true);
+            checksumCache.invalidate(sourceFile);
+            checksumCache.invalidate(destinationFile);
+            appendNotifier.signal(sourceFile);
+            appendNotifier.signal(destinationFile);
         }
     }
 
     @Override
     public void copy(String source, String destination) {
+        copy(source, destination, new OperationProgress());
+    }
+
+    @Override
+    public void copy(String source, String destination, OperationProgress progress) {
         ValidationUtils.validateWritablePath(source);
         ValidationUtils.validateWritablePath(destination);
 
         Path sourceFile = resolve(source);
         Path destinationFile = resolve(destination);
 
-        if (!fileIOManager.exists(sourceFile)) {
+        if (!exists(sourceFile)) {
             throw new FileNotFoundException(source);
         }
 
         try {
-            if (fileIOManager.isDirectory(destinationFile) && !fileIOManager.isEmptyDirectory(destinationFile)) {
+            if (isDirectory(destinationFile) && !fileIOManager.isEmptyDirectory(destinationFile)) {
                 throw new FileAlreadyExistsException("Cannot overwrite non-empty directory: " + destinationFile);
             }
 
@@ -150,13 +253,19 @@ public class FileSystemServiceImpl implements FileSystemService {
                 fileIOManager.createDirectory(destinationFile.getParent());
             }
 
-            if (fileIOManager.isDirectory(sourceFile)) {
-                fileIOManager.copyDirectory(sourceFile, destinationFile); // Handle
+            if (isDirectory(sourceFile)) {
+                fileIOManager.copyDirectory(sourceFile, destinationFile, progress);
             } else {
-                fileIOManager.copy(sourceFile, destinationFile);
+                fileIOManager.copy(sourceFile, destinationFile, progress);
             }
+        } catch (OperationCancelledException e) {
+            throw new CancellationException("Copy cancelled: " + source);
         } catch (IOException e) {
             throw new RuntimeException("Failed to copy from " + source + " to " + destination, e);
+        } finally {
+            namespaceIndex.refresh(destinationFile);
+            metadataCache.invalidate(destinationFile, true);
+            checksumCache.invalidate(destinationFile);
         }
     }
 
@@ -165,43 +274,421 @@ public class FileSystemServiceImpl implements FileSystemService {
         ValidationUtils.validateWritablePath(path);
         Path file = resolve(path);
 
-        if (!fileIOManager.exists(file)) {
+        if (!exists(file)) {
             throw new FileNotFoundException(path);
         }
-        if (fileIOManager.isDirectory(file)) {
+        if (isDirectory(file)) {
             throw new InvalidPathException(path);
         }
 
-        fileConcurrencyManager.withLock(file, () -> {
+        try {
+            appendCoalescer.append(file, data, () -> checksumCache.appended(file));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to append to file: " + path, e);
+        } finally {
+            namespaceIndex.resized(file);
+            metadataCache.invalidate(file, false);
+            appendNotifier.signal(file);
+        }
+    }
+
+    @Override
+    public String read(String path, long offset, int length) {
+        ValidationUtils.validateWritablePath(path);
+        Path file = resolve(path);
+
+        if (!exists(file)) {
+            throw new FileNotFoundException(path);
+        }
+        if (isDirectory(file)) {
+            throw new InvalidPathException(path);
+        }
+
+        // Shared with other readers, but never observes an append batch half-written
+        return fileConcurrencyManager.withSharedLock(file, () -> {
             try {
-                fileIOManager.writeString(file, data);
+                return fileIOManager.read(file, offset, length);
             } catch (IOException e) {
-                throw new RuntimeException("Failed to append to file: " + path, e);
+                throw new RuntimeException("Failed to read from file: " + path, e);
             }
         });
     }
 
     @Override
-    public String read(String path, int offset, int length) {
+    public FollowResponse follow(String path, long offset, int length, Duration timeout) {
         ValidationUtils.validateWritablePath(path);
         Path file = resolve(path);
 
-        if (!fileIOManager.exists(file)) {
+        if (!exists(file)) {
             throw new FileNotFoundException(path);
         }
-        if (fileIOManager.isDirectory(file)) {
+        if (isDirectory(file)) {
             throw new InvalidPathException(path);
         }
 
+        // Any size other than offset ends the wait: growth is returned, a shrink tells the client to resync
+        long[] size = {0};
+        try {
+            appendNotifier.await(file, timeout, () -> (size[0] = sizeOf(file, path)) != offset);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while following: " + path, e);
+        }
+        if (size[0] <= offset) {
+            return new FollowResponse("", offset, size[0]);
+        }
+
+        ByteBuffer bytes = fileConcurrencyManager.withSharedLock(file, () -> {
+            try {
+                return fileIOManager.readRanges(file, List.of(new ByteRange(offset, length))).get(0);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read from file: " + path, e);
+            }
+        });
+        int complete = completeUtf8Length(bytes);
+        String data = StandardCharsets.UTF_8.decode(bytes.limit(bytes.position() + complete)).toString();
+        return new FollowResponse(data, offset + complete, Math.max(size[0], offset + complete));
+    }
+
+    private long sizeOf(Path file, String path) {
         try {
-            return fileIOManager.read(file, offset, length);
+            return fileIOManager.readAttributes(file).size();
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(path);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to read from file: " + path, e);
+            throw new RuntimeException("Failed to read file info: " + path, e);
         }
     }
 
-    private Path resolve(String path) {
+    @Override
+    public CompletableFuture<Boolean> awaitFollow(String path, long offset, Duration timeout, Executor executor) {
+        ValidationUtils.validateWritablePath(path);
+        Path file = resolve(path);
+
+        if (!exists(file)) {
+            throw new FileNotFoundException(path);
+        }
+        if (isDirectory(file)) {
+            throw new InvalidPathException(path);
+        }
+
+        return appendNotifier.awaitAsync(file, timeout, () -> sizeOf(file, path) != offset, executor);
+    }
+
+    // Leaves a character split by the end of the range for the next follow, unless it is all there is
+    private static int completeUtf8Length(ByteBuffer bytes) {
+        int length = bytes.remaining();
+        for (int back = 1; back <= Math.min(3, length); back++) {
+            int b = bytes.get(bytes.position() + length - back) & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                int needed = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+                return needed > back && back < length ? length - back : length;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public List<byte[]> readRanges(String path, List<ByteRange> ranges) {
+        ValidationUtils.validateWritablePath(path);
+        Path file = resolve(path);
+
+        if (!exists(file)) {
+            throw new FileNotFoundException(path);
+        }
+        if (isDirectory(file)) {
+            throw new InvalidPathException(path);
+        }
+
+        List<ByteBuffer> buffers = fileConcurrencyManager.withSharedLock(file, () -> {
+            try {
+                return fileIOManager.readRanges(file, ranges);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read from file: " + path, e);
+            }
+        });
+        return buffers.stream().map(FileSystemServiceImpl::toBytes).toList();
+    }
+
+    // Ranges that do not overlap another one own their whole buffer, which is then returned without a copy
+    private static byte[] toBytes(ByteBuffer buffer) {
+        if (buffer.arrayOffset() == 0 && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public long transferTo(String path, LongFunction<ByteRange> range, WritableByteChannel target) {
+        ValidationUtils.validateWritablePath(path);
+        Path file = resolve(path);
+
+        if (!exists(file)) {
+            throw new FileNotFoundException(path);
+        }
+        if (isDirectory(file)) {
+            throw new InvalidPathException(path);
+        }
+
+        return fileConcurrencyManager.withSharedLock(file, () -> {
+            ByteRange picked = range.apply(sizeOf(file, path));
+            if (picked == null || picked.length() <= 0) {
+                return 0L;
+            }
+            long transferred;
+            try {
+                transferred = fileIOManager.transferTo(file, picked.offset(), picked.length(), target);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read from file: " + path, e);
+            }
+            // Only a writer outside the service can shrink the file under the lock
+            if (transferred != picked.length()) {
+                throw new RuntimeException("File shrank while being sent: " + path);
+            }
+            return transferred;
+        });
+    }
+
+    @Override
+    public boolean walk(String path, int maxDepth, List<String> include, List<String> exclude, long limit,
+                        Consumer<FileInfo> consumer) {
         Path root = PathUtils.getRoot(rootPathProperties);
-        return PathUtils.resolveSafePath(root, path);
+        Path start = resolve(root, path);
+        if (!exists(start)) {
+            throw new FileNotFoundException(path);
+        }
+        if (!isDirectory(start)) {
+            throw new InvalidPathException("Not a directory: " + path);
+        }
+        List<PathMatcher> includes = toMatchers(start, include);
+        List<PathMatcher> excludes = toMatchers(start, exclude);
+
+        // Excluded directories are pruned on the walking threads; includes only filter what is emitted
+        long[] emitted = {0};
+        boolean[] truncated = {false};
+        BiPredicate<Path, BasicFileAttributes> prune = (entry, attrs) -> fileIOManager.isInternal(entry)
+                || matchesAny(excludes, start.relativize(entry));
+        try {
+            fileIOManager.walk(start, maxDepth, prune,
+                               (entry, attrs) -> {
+                                   if (!includes.isEmpty() && !matchesAny(includes, start.relativize(entry))) {
+                                       return true;
+                                   }
+                                   if (emitted[0] == limit) {
+                                       truncated[0] = true;
+                                       return false;
+                                   }
+                                   emitted[0]++;
+                                   consumer.accept(toFileInfo(entry.getFileName().toString(),
+                                                              root.relativize(entry).toString(), attrs));
+                                   return true;
+                               });
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to walk: " + path, e);
+        }
+        return truncated[0];
+    }
+
+    @Override
+    public ChecksumResponse checksum(String path) {
+        ValidationUtils.validateWritablePath(path);
+        Path file = resolve(path);
+
+        if (!exists(file)) {
+            throw new FileNotFoundException(path);
+        }
+        if (isDirectory(file)) {
+            throw new InvalidPathException(path);
+        }
+
+        // Appends wait until the file is hashed and its sidecar written, so both describe the same bytes
+        FileChecksum checksum = fileConcurrencyManager.withSharedLock(file, () -> {
+            try {
+                return checksumCache.get(file);
+            } catch (NoSuchFileException e) {
+                throw new FileNotFoundException(path);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to checksum: " + path, e);
+            }
+        });
+        HexFormat hex = HexFormat.of();
+        return ChecksumResponse.builder()
+                               .size(checksum.size())
+                               .blockSize(checksum.blockSize())
+                               .digest(hex.formatHex(checksum.digest()))
+                               .blocks(checksum.blocks().stream()
+                                               .map(block -> new ChecksumResponse.Block(
+                                                       block.offset(), block.length(),
+                                                       hex.toHexDigits(block.crc32c()),
+                                                       hex.formatHex(block.sha256())))
+                                               .toList())
+                               .build();
+    }
+
+    @Override
+    public SignatureResponse signatures(String path, long blockSize) {
+        ValidationUtils.validateWritablePath(path);
+        Path file = resolve(path);
+
+        if (!exists(file)) {
+            throw new FileNotFoundException(path);
+        }
+        if (isDirectory(file)) {
+            throw new InvalidPathException(path);
+        }
+
+        // The version is read under the same lock as the blocks, so it names exactly the signed bytes
+        return fileConcurrencyManager.withSharedLock(file, () -> {
+            try {
+                BasicFileAttributes attrs = fileIOManager.readAttributes(file);
+                List<BlockSignature> blocks = fileIOManager.blockSignatures(file, attrs.size(), blockSize);
+                HexFormat hex = HexFormat.of();
+                return SignatureResponse.builder()
+                                        .size(attrs.size())
+                                        .blockSize(blockSize)
+                                        .version(versionOf(attrs))
+                                        .blocks(blocks.stream()
+                                                      .map(block -> new SignatureResponse.Block(
+                                                              hex.toHexDigits(block.rolling()),
+                                                              hex.formatHex(block.sha256())))
+                                                      .toList())
+                                        .build();
+            } catch (NoSuchFileException e) {
+                throw new FileNotFoundException(path);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to compute signatures: " + path, e);
+            }
+        });
+    }
+
+    @Override
+    public DeltaResult applyDelta(String path, String baseVersion, long blockSize, List<DeltaOp> ops) {
+        ValidationUtils.validateWritablePath(path);
+        Path file = resolve(path);
+
+        if (!exists(file)) {
+            throw new FileNotFoundException(path);
+        }
+        if (isDirectory(file)) {
+            throw new InvalidPathException(path);
+        }
+
+        // Assembled without the lock, which is only taken to check the base and rename the result over it
+        Path temp = file.resolveSibling("." + file.getFileName() + ".delta-" + UUID.randomUUID());
+        DeltaResult[] result = new DeltaResult[1];
+        try {
+            BasicFileAttributes base = fileIOManager.readAttributes(file);
+            requireVersion(path, baseVersion, base);
+            fileIOManager.writeDelta(file, base.size(), blockSize, ops, temp);
+            fileConcurrencyManager.withLock(file, () -> {
+                try {
+                    requireVersion(path, baseVersion, fileIOManager.readAttributes(file));
+                    checksumCache.invalidate(file);
+                    fileIOManager.replace(temp, file);
+                    BasicFileAttributes attrs = fileIOManager.readAttributes(file);
+                    result[0] = new DeltaResult(attrs.size(), versionOf(attrs));
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to apply delta to file: " + path, e);
+                }
+            });
+            return result[0];
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(path);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to apply delta to file: " + path, e);
+        } finally {
+            if (result[0] == null) {
+                discard(temp);
+            }
+            namespaceIndex.refresh(file);
+            metadataCache.invalidate(file, false);
+            appendNotifier.signal(file);
+        }
+    }
+
+    private void requireVersion(String path, String expected, BasicFileAttributes attrs) {
+        String actual = versionOf(attrs);
+        if (!actual.equals(expected)) {
+            throw new VersionConflictException(path, expected, actual);
+        }
+    }
+
+    // Size and modification time, the same pair the checksum sidecars are validated against
+    private static String versionOf(BasicFileAttributes attrs) {
+        return attrs.size() + "-" + attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    private void discard(Path temp) {
+        try {
+            if (fileIOManager.exists(temp)) {
+                fileIOManager.deleteRecursively(temp);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to remove delta temp file {}", temp, e);
+        }
+    }
+
+    @Override
+    public IndexReport verifyIndex(boolean repair) {
+        IndexReport report = namespaceIndex.verify(repair);
+        if (report.isRepaired()) {
+            metadataCache.invalidate(PathUtils.getRoot(rootPathProperties), true);
+        }
+        return report;
+    }
+
+    private FileInfo toFileInfo(String name, String relativePath, BasicFileAttributes attrs) {
+        return toFileInfo(name, relativePath, attrs.isDirectory(), attrs.size());
+    }
+
+    private FileInfo toFileInfo(String name, String relativePath, boolean directory, long size) {
+        return FileInfo.builder()
+                       .name(name)
+                       .path(relativePath)
+                       .size(directory ? 0L : size)
+                       .directory(directory)
+                       .build();
+    }
+
+    private static List<PathMatcher> toMatchers(Path start, List<String> globs) {
+        if (globs == null) {
+            return List.of();
+        }
+        return globs.stream().map(glob -> start.getFileSystem().getPathMatcher("glob:" + glob)).toList();
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path relative) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Answered by the namespace index when it covers the path, otherwise by the filesystem
+    private boolean exists(Path file) {
+        return namespaceIndex.lookup(file).map(IndexEntry::exists).orElseGet(() -> fileIOManager.exists(file));
+    }
+
+    private boolean isDirectory(Path file) {
+        return namespaceIndex.lookup(file)
+                             .map(IndexEntry::directory)
+                             .orElseGet(() -> fileIOManager.isDirectory(file));
+    }
+
+    private Path resolve(String path) {
+        return resolve(PathUtils.getRoot(rootPathProperties), path);
+    }
+
+    // The content store keeps its blobs under the root, but they are not part of the namespace
+    private Path resolve(Path root, String path) {
+        Path resolved = PathUtils.resolveSafePath(root, path);
+        if (fileIOManager.isInternal(resolved)) {
+            throw new InvalidPathException(path);
+        }
+        return resolved;
     }
 }
@@ -0,0 +1,76 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import java.time.Instant;
+
+import com.github.mateuscordeiro.fileservice.io.OperationProgress;
+
+public final class Job {
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    private final String id;
+    private final String operation;
+    private final OperationProgress progress = new OperationProgress();
+    private volatile State state = State.QUEUED;
+    private volatile Throwable failure;
+    private volatile Instant finishedAt;
+
+    Job(String id, String operation) {
+        this.id = id;
+        this.operation = operation;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public OperationProgress getProgress() {
+        return progress;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    // False when the job was cancelled while it was queued
+    synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.RUNNING;
+        return true;
+    }
+
+    synchronized void finish(State finalState, Throwable cause) {
+        // state goes last: readers that see a finished state also see when it finished
+        finishedAt = Instant.now();
+        failure = cause;
+        state = finalState;
+    }
+
+    // A queued job is cancelled right away; a running one stops at the next entry it processes
+    synchronized void cancel() {
+        if (state == State.QUEUED) {
+            finish(State.CANCELLED, null);
+        } else if (state == State.RUNNING) {
+            progress.cancel();
+        }
+    }
+}
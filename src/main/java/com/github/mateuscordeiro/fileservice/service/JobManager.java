@@ -0,0 +1,92 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.concurrency.ExecutorUtils;
+import com.github.mateuscordeiro.fileservice.config.JobProperties;
+import com.github.mateuscordeiro.fileservice.exception.JobNotFoundException;
+import com.github.mateuscordeiro.fileservice.exception.JobRejectedException;
+import com.github.mateuscordeiro.fileservice.io.OperationProgress;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Jobs are kept in memory only, until retention after they finish
+@Component
+public class JobManager {
+    private final JobProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public JobManager(JobProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        // Unlike batches, a saturated pool rejects the job: running it on the caller would block the request thread
+        this.executor = ExecutorUtils.newBoundedPool("job-", properties.getThreads(), properties.getQueueCapacity(),
+                                                     new ThreadPoolExecutor.AbortPolicy(), "fileservice.jobs",
+                                                     meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(Job::cancel);
+        executor.shutdown();
+    }
+
+    public Job submit(String operation, Consumer<OperationProgress> work) {
+        purgeExpired();
+        Job job = new Job(UUID.randomUUID().toString(), operation);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, work));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new JobRejectedException("Job queue is full, retry later");
+        }
+        return job;
+    }
+
+    public Job get(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new JobNotFoundException(id);
+        }
+        return job;
+    }
+
+    public Job cancel(String id) {
+        Job job = get(id);
+        job.cancel();
+        return job;
+    }
+
+    private void run(Job job, Consumer<OperationProgress> work) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            work.accept(job.getProgress());
+            job.finish(Job.State.SUCCEEDED, null);
+        } catch (CancellationException e) {
+            job.finish(Job.State.CANCELLED, null);
+        } catch (Throwable e) {
+            // Errors too, or the job would stay running forever; they still reach the pool thread afterwards
+            job.finish(Job.State.FAILED, e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> job.getState().isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
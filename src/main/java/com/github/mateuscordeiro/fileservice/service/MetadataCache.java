@@ -0,0 +1,127 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.config.CacheProperties;
+import com.github.mateuscordeiro.fileservice.io.FileTreeWatcher;
+import com.github.mateuscordeiro.fileservice.rpc.dto.FileInfo;
+
+// Loads that raced an invalidation of their key are not stored
+@Component
+public class MetadataCache {
+    private final CacheProperties.Metadata properties;
+    private final FileTreeWatcher watcher;
+    private final Map<Key, Entry> entries;
+    private final Set<Load> loading = new HashSet<>();
+
+    public MetadataCache(CacheProperties cacheProperties, FileTreeWatcher watcher) {
+        this.properties = cacheProperties.getMetadata();
+        this.watcher = watcher;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > properties.getMaxEntries();
+            }
+        };
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled() && properties.isWatch()) {
+            watcher.subscribe(change -> invalidate(change.path(), change.subtree()));
+        }
+    }
+
+    public FileInfo getFileInfo(Path path, Supplier<FileInfo> loader) {
+        return get(new Key(path, false), loader);
+    }
+
+    public List<FileInfo> getChildren(Path directory, Supplier<List<FileInfo>> loader) {
+        return get(new Key(directory, true), () -> List.copyOf(loader.get()));
+    }
+
+    // Drops the entry of the path, the listings of its ancestors and, for a subtree, everything below it
+    public void invalidate(Path path, boolean subtree) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path normalized = path.toAbsolutePath().normalize();
+        synchronized (this) {
+            for (Load load : loading) {
+                if (affects(load.key, normalized, subtree)) {
+                    load.stale = true;
+                }
+            }
+            if (subtree) {
+                entries.keySet().removeIf(key -> key.path().startsWith(normalized));
+            } else {
+                entries.remove(new Key(normalized, false));
+                entries.remove(new Key(normalized, true));
+            }
+            for (Path parent = normalized.getParent(); parent != null; parent = parent.getParent()) {
+                entries.remove(new Key(parent, true));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Key key, Supplier<T> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        Load load = new Load(key);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.expiresAt() < 0) {
+                return (T) entry.value();
+            }
+            loading.add(load);
+        }
+        T value;
+        try {
+            value = loader.get();
+        } finally {
+            synchronized (this) {
+                loading.remove(load);
+            }
+        }
+        synchronized (this) {
+            if (!load.stale) {
+                entries.put(key, new Entry(value, System.nanoTime() + properties.getTtl().toNanos()));
+            }
+        }
+        return value;
+    }
+
+    // The same entries invalidate drops
+    private static boolean affects(Key key, Path path, boolean subtree) {
+        if (key.path().startsWith(path)) {
+            return subtree || key.path().equals(path);
+        }
+        return key.listing() && path.startsWith(key.path());
+    }
+
+    private record Key(Path path, boolean listing) {
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    // Compared by identity, so concurrent loads of one key are tracked apart; stale is guarded by the cache
+    private static final class Load {
+        private final Key key;
+        private boolean stale;
+
+        Load(Key key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,554 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.config.IndexProperties;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.io.FileIOManager;
+import com.github.mateuscordeiro.fileservice.io.FileTreeWatcher;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.IndexReport;
+import com.github.mateuscordeiro.fileservice.util.PathUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+// In-memory trie of the tree under the root; scans merge entry by entry, keeping nodes with a newer ticket.
+// Children maps are concurrent, so a reader without the lock sees a consistent, if moving, tree.
+@Slf4j
+@Component
+public class NamespaceIndex {
+    private static final int MAX_REPORTED_MISMATCHES = 1000;
+    private static final Node UNKNOWN = new Node("", false, 0, true, Long.MAX_VALUE, null, false);
+
+    private final IndexProperties properties;
+    private final RootPathProperties rootPathProperties;
+    private final FileTreeWatcher watcher;
+    private final Predicate<Path> internal;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong tickets = new AtomicLong();
+    // Guarded by itself
+    private final ConcurrentSkipListSet<Long> scanning = new ConcurrentSkipListSet<>();
+    private final Set<Path> pendingRescans = ConcurrentHashMap.newKeySet();
+    private ForkJoinPool pool;
+    // Guarded by lock
+    private final List<Tombstone> tombstones = new ArrayList<>();
+    private Path rootPath;
+    private Node root;
+    private Set<Path> refreshedDuringScan; // concurrent: resized adds to it under the read lock
+
+    public NamespaceIndex(IndexProperties properties, RootPathProperties rootPathProperties,
+                          FileTreeWatcher watcher, FileIOManager fileIOManager) {
+        this.properties = properties;
+        this.rootPathProperties = rootPathProperties;
+        this.watcher = watcher;
+        this.internal = fileIOManager::isInternal;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        pool = new ForkJoinPool(properties.getParallelism());
+        verify(true);
+        if (properties.isWatch()) {
+            watcher.subscribe(this::changed);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public Optional<IndexEntry> lookup(Path path) {
+        lock.readLock().lock();
+        try {
+            Node node = locate(path);
+            if (node == UNKNOWN) {
+                return Optional.empty();
+            }
+            return Optional.of(node == null ? IndexEntry.MISSING : node.toEntry());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<List<IndexEntry>> children(Path directory) {
+        lock.readLock().lock();
+        try {
+            Node node = locate(directory);
+            if (node == UNKNOWN || node == null || node.opaque || node.children == null) {
+                return Optional.empty();
+            }
+            List<IndexEntry> entries = new ArrayList<>(node.children.size());
+            for (Node child : node.children.values()) {
+                if (!child.removed) {
+                    entries.add(child.toEntry());
+                }
+            }
+            return Optional.of(entries);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Re-reads the path from the filesystem, with its whole subtree when it is a directory
+    public void refresh(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        if (!properties.isEnabled() || internal.test(normalized)) {
+            return;
+        }
+        long ticket;
+        synchronized (scanning) {
+            ticket = tickets.incrementAndGet();
+            scanning.add(ticket);
+        }
+        Node fresh;
+        try {
+            fresh = scan(normalized, ticket);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to refresh index entry {}", normalized, e);
+            fresh = null;
+        } catch (RuntimeException e) {
+            scanning.remove(ticket);
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            if (refreshedDuringScan != null) {
+                refreshedDuringScan.add(normalized);
+            }
+            apply(normalized, fresh, ticket);
+            scanning.remove(ticket);
+            pruneTombstones();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // After an append: a file already indexed only has its size updated, in place and under the read lock, so
+    // appends to different files do not serialize on the index; anything else falls back to a refresh
+    public void resized(Path file) {
+        Path normalized = file.toAbsolutePath().normalize();
+        if (!properties.isEnabled() || internal.test(normalized)) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            Node node = locate(normalized);
+            if (node != UNKNOWN && node != null && !node.directory && resize(normalized, node)) {
+                if (refreshedDuringScan != null) {
+                    refreshedDuringScan.add(normalized);
+                }
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        refresh(normalized);
+    }
+
+    // Walks the root again and compares it with the index; with repair, the walked tree replaces the index
+    public IndexReport verify(boolean repair) {
+        if (!properties.isEnabled()) {
+            return IndexReport.builder().enabled(false).mismatches(List.of()).build();
+        }
+        Path currentRoot = PathUtils.getRoot(rootPathProperties);
+        lock.writeLock().lock();
+        try {
+            refreshedDuringScan = ConcurrentHashMap.newKeySet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Node fresh = null;
+        Set<Path> refreshed;
+        List<String> mismatches = new ArrayList<>();
+        boolean repaired = false;
+        try {
+            fresh = scan(currentRoot, tickets.incrementAndGet());
+            Path indexedRoot;
+            Node indexed;
+            lock.readLock().lock();
+            try {
+                indexedRoot = rootPath;
+                indexed = root;
+            } finally {
+                lock.readLock().unlock();
+            }
+            // Outside the lock: what changes meanwhile is recorded and refreshed again after a repair
+            if (currentRoot.equals(indexedRoot)) {
+                compare(indexed, fresh, "", mismatches);
+            } else if (indexedRoot != null) {
+                mismatches.add(""); // indexed for another root
+            }
+            repaired = repair && (indexed == null || !mismatches.isEmpty());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to index " + currentRoot, e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                refreshed = refreshedDuringScan;
+                refreshedDuringScan = null;
+                if (repaired) {
+                    rootPath = currentRoot;
+                    root = fresh;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (repaired) {
+            // Paths mutated while the walk and the compare ran may have been read before the change
+            refreshed.forEach(this::refresh);
+        }
+        return IndexReport.builder()
+                          .enabled(true)
+                          .entries(count(fresh))
+                          .mismatches(mismatches)
+                          .repaired(repaired)
+                          .build();
+    }
+
+    private void changed(FileTreeWatcher.Change change) {
+        if (change.kind() == FileTreeWatcher.Change.Kind.MODIFY && change.directory()) {
+            return; // still a directory, and changes of its entries arrive as their own events
+        }
+        if (change.subtree()) {
+            rescan(change.path());
+        } else {
+            refresh(change.path());
+        }
+    }
+
+    // Off the watcher thread; a path already waiting is not queued again
+    private void rescan(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        if (pendingRescans.add(normalized)) {
+            pool.execute(() -> {
+                pendingRescans.remove(normalized);
+                refresh(normalized);
+            });
+        }
+    }
+
+    private Node locate(Path path) {
+        if (root == null || !path.startsWith(rootPath)) {
+            return UNKNOWN;
+        }
+        Node node = root;
+        for (Path name : rootPath.relativize(path)) {
+            if (name.toString().isEmpty()) {
+                continue;
+            }
+            if (node.opaque) {
+                return UNKNOWN;
+            }
+            if (node.children == null) {
+                return null;
+            }
+            node = node.children.get(name.toString());
+            if (node == null || node.removed) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    private void apply(Path path, Node fresh, long ticket) {
+        if (root == null || !path.startsWith(rootPath)) {
+            return;
+        }
+        boolean olderScanning = scanning.lower(ticket) != null;
+        if (path.equals(rootPath)) {
+            if (fresh != null) {
+                root = merge(path, root, fresh, ticket, olderScanning);
+            }
+            return;
+        }
+        Path relative = rootPath.relativize(path);
+        Node parent = root;
+        for (int i = 0; i < relative.getNameCount() - 1; i++) {
+            if (parent.opaque || parent.children == null) {
+                return;
+            }
+            String name = relative.getName(i).toString();
+            Node next = parent.children.get(name);
+            if (next == null || next.removed) {
+                if (fresh == null) {
+                    return;
+                }
+                // The path exists, so its missing ancestors were created along with it
+                next = new Node(name, true, 0, false, ticket, new ConcurrentHashMap<>(), false);
+                parent.children.put(name, next);
+            }
+            parent = next;
+        }
+        if (parent.opaque || parent.children == null) {
+            return;
+        }
+        String name = path.getFileName().toString();
+        Node merged = merge(path, parent.children.get(name), fresh, ticket, olderScanning);
+        if (merged == null) {
+            parent.children.remove(name);
+        } else {
+            parent.children.put(name, merged);
+        }
+    }
+
+    // What path should hold after a scan taken with ticket found fresh there, given what is indexed now
+    private Node merge(Path path, Node existing, Node fresh, long ticket, boolean olderScanning) {
+        if (existing != null && existing.ticket > ticket) {
+            return existing;
+        }
+        if (fresh == null) {
+            if (!olderScanning) {
+                return null;
+            }
+            tombstones.add(new Tombstone(path, ticket));
+            return new Node(nameOf(path), false, 0, false, ticket, null, true);
+        }
+        if (existing == null || existing.removed || existing.children == null || fresh.children == null) {
+            return fresh;
+        }
+        Map<String, Node> children = new ConcurrentHashMap<>(fresh.children);
+        for (Map.Entry<String, Node> child : existing.children.entrySet()) {
+            Node merged = merge(path.resolve(child.getKey()), child.getValue(), fresh.children.get(child.getKey()),
+                                ticket, olderScanning);
+            if (merged == null) {
+                children.remove(child.getKey());
+            } else {
+                children.put(child.getKey(), merged);
+            }
+        }
+        return new Node(fresh.name, true, 0, false, ticket, children, false);
+    }
+
+    // Drops the tombstones no running scan is older than
+    private void pruneTombstones() {
+        if (tombstones.isEmpty()) {
+            return;
+        }
+        long oldest = scanning.isEmpty() ? Long.MAX_VALUE : scanning.first();
+        tombstones.removeIf(tombstone -> {
+            if (oldest < tombstone.ticket()) {
+                return false;
+            }
+            Node parent = locate(tombstone.path().getParent());
+            if (parent != UNKNOWN && parent != null && parent.children != null) {
+                String name = tombstone.path().getFileName().toString();
+                Node node = parent.children.get(name);
+                if (node != null && node.removed && node.ticket == tombstone.ticket()) {
+                    parent.children.remove(name);
+                }
+            }
+            return true;
+        });
+    }
+
+    private Node scan(Path path, long ticket) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (attrs.isDirectory()) {
+            return pool.invoke(new ScanTask(path, ticket, internal));
+        }
+        return entryNode(path, attrs, ticket);
+    }
+
+    // Per node, so two appends to the same file store their sizes in the order they read them
+    private boolean resize(Path file, Node node) {
+        synchronized (node) {
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (IOException e) {
+                return false;
+            }
+            if (!attrs.isRegularFile()) {
+                return false;
+            }
+            // A newer ticket keeps scans that read the file before the append from merging the old size back
+            node.ticket = tickets.incrementAndGet();
+            node.size = attrs.size();
+            return true;
+        }
+    }
+
+    private static Node entryNode(Path path, BasicFileAttributes attrs, long ticket) throws IOException {
+        String name = nameOf(path);
+        if (!attrs.isSymbolicLink()) {
+            return new Node(name, false, attrs.size(), false, ticket, null, false);
+        }
+        // Links are described by their target, as the filesystem lookups do; a dangling link is absent
+        BasicFileAttributes target;
+        try {
+            target = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        return new Node(name, target.isDirectory(), target.isDirectory() ? 0 : target.size(),
+                        target.isDirectory(), ticket, null, false);
+    }
+
+    private static String nameOf(Path path) {
+        Path name = path.getFileName();
+        return name == null ? "" : name.toString();
+    }
+
+    private static void compare(Node indexed, Node actual, String path, List<String> mismatches) {
+        if (mismatches.size() >= MAX_REPORTED_MISMATCHES) {
+            return;
+        }
+        if (indexed != null && indexed.removed) {
+            indexed = null;
+        }
+        if (indexed == null || actual == null) {
+            if (indexed != actual) {
+                mismatches.add(path);
+            }
+            return;
+        }
+        if (indexed.directory != actual.directory || indexed.size != actual.size || indexed.opaque != actual.opaque) {
+            mismatches.add(path);
+            return;
+        }
+        if (indexed.children == null || actual.children == null) {
+            return;
+        }
+        Set<String> names = new TreeSet<>(indexed.children.keySet());
+        names.addAll(actual.children.keySet());
+        String prefix = path.isEmpty() ? "" : path + "/";
+        for (String name : names) {
+            compare(indexed.children.get(name), actual.children.get(name), prefix + name, mismatches);
+        }
+    }
+
+    private static long count(Node node) {
+        if (node == null || node.children == null) {
+            return node == null || node.removed ? 0 : 1;
+        }
+        long count = 1;
+        for (Node child : node.children.values()) {
+            count += count(child);
+        }
+        return count;
+    }
+
+    public record IndexEntry(String name, boolean directory, long size) {
+        public static final IndexEntry MISSING = new IndexEntry(null, false, 0);
+
+        public boolean exists() {
+            return name != null;
+        }
+    }
+
+    // Size and ticket change in place when a file is resized; everything else replaces the node
+    private static final class Node {
+        private final String name;
+        private final boolean directory;
+        private final boolean opaque;
+        private final Map<String, Node> children;
+        private final boolean removed;
+        private volatile long size;
+        private volatile long ticket;
+
+        Node(String name, boolean directory, long size, boolean opaque, long ticket, Map<String, Node> children,
+             boolean removed) {
+            this.name = name;
+            this.directory = directory;
+            this.size = size;
+            this.opaque = opaque;
+            this.ticket = ticket;
+            this.children = children;
+            this.removed = removed;
+        }
+
+        IndexEntry toEntry() {
+            return new IndexEntry(name, directory, size);
+        }
+    }
+
+    private record Tombstone(Path path, long ticket) {
+    }
+
+    private static final class ScanTask extends RecursiveTask<Node> {
+        private final Path directory;
+        private final long ticket;
+        private final Predicate<Path> internal;
+
+        ScanTask(Path directory, long ticket, Predicate<Path> internal) {
+            this.directory = directory;
+            this.ticket = ticket;
+            this.internal = internal;
+        }
+
+        @Override
+        protected Node compute() {
+            Map<String, Node> children = new ConcurrentHashMap<>();
+            List<ScanTask> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path entry : stream) {
+                    if (internal.test(entry)) {
+                        continue; // the content store and the journal are not part of the namespace
+                    }
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (NoSuchFileException e) {
+                        continue; // removed between listing and stat
+                    }
+                    if (attrs.isDirectory()) {
+                        ScanTask task = new ScanTask(entry, ticket, internal);
+                        task.fork();
+                        subdirectories.add(task);
+                    } else {
+                        Node node = entryNode(entry, attrs, ticket);
+                        if (node != null) {
+                            children.put(node.name, node);
+                        }
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (ScanTask task : subdirectories) {
+                Node node = task.join();
+                if (node != null) {
+                    children.put(node.name, node);
+                }
+            }
+            return new Node(nameOf(directory), true, 0, false, ticket, children, false);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Component;
+import com.github.mateuscordeiro.fileservice.concurrency.ExecutorUtils;
+import com.github.mateuscordeiro.fileservice.concurrency.FileConcurrencyManager;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.config.RpcProperties;
+import com.github.mateuscordeiro.fileservice.util.PathUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Operations sharing a stripe or overlapping paths run in order under all of their locks; groups run in parallel
+@Component
+public class OperationBatchExecutor {
+    private final FileSystemService service;
+    private final FileConcurrencyManager fileConcurrencyManager;
+    private final RootPathProperties rootPathProperties;
+    private final ThreadPoolExecutor executor;
+
+    public OperationBatchExecutor(FileSystemService service, FileConcurrencyManager fileConcurrencyManager,
+                                  RootPathProperties rootPathProperties, RpcProperties rpcProperties,
+                                  MeterRegistry meterRegistry) {
+        this.service = service;
+        this.fileConcurrencyManager = fileConcurrencyManager;
+        this.rootPathProperties = rootPathProperties;
+        RpcProperties.ExecuteBatch properties = rpcProperties.getExecuteBatch();
+        // A saturated pool runs the group on the calling thread instead of rejecting it
+        this.executor = ExecutorUtils.newBoundedPool("batch-op-", properties.getThreads(),
+                                                     properties.getQueueCapacity(),
+                                                     new ThreadPoolExecutor.CallerRunsPolicy(),
+                                                     "fileservice.execute-batch", meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // One entry per operation, in request order: null when it succeeded, the exception it failed with otherwise
+    public List<RuntimeException> execute(List<BatchOperation> operations) {
+        Path root = PathUtils.getRoot(rootPathProperties);
+        int size = operations.size();
+        RuntimeException[] failures = new RuntimeException[size];
+        List<List<Path>> paths = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            try {
+                paths.add(operations.get(i).paths().stream().map(p -> PathUtils.resolveSafePath(root, p)).toList());
+            } catch (RuntimeException e) {
+                failures[i] = e;
+                paths.add(List.of());
+            }
+        }
+
+        List<List<Integer>> groups = group(paths);
+        if (groups.size() == 1) {
+            run(groups.get(0), operations, paths, failures);
+        } else {
+            CompletableFuture.allOf(groups.stream()
+                                          .map(group -> CompletableFuture.runAsync(
+                                                  () -> run(group, operations, paths, failures), executor))
+                                          .toArray(CompletableFuture<?>[]::new))
+                             .join();
+        }
+        return Arrays.asList(failures);
+    }
+
+    private List<List<Integer>> group(List<List<Path>> paths) {
+        int[] parent = new int[paths.size()];
+        Map<Integer, Integer> stripeOwners = new HashMap<>();
+        Map<Path, Integer> pathOwners = new HashMap<>();
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            for (Path path : paths.get(i)) {
+                union(parent, i, stripeOwners.putIfAbsent(fileConcurrencyManager.stripeIndex(path), i));
+                union(parent, i, pathOwners.putIfAbsent(path, i));
+            }
+        }
+        for (int i = 0; i < parent.length; i++) {
+            for (Path path : paths.get(i)) {
+                for (Path ancestor = path.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+                    union(parent, i, pathOwners.get(ancestor));
+                }
+            }
+        }
+
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < parent.length; i++) {
+            // Operations whose paths did not resolve already failed and have nothing to run
+            if (!paths.get(i).isEmpty()) {
+                groups.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(i);
+            }
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private void run(List<Integer> group, List<BatchOperation> operations, List<List<Path>> paths,
+                     RuntimeException[] failures) {
+        List<Path> locked = group.stream().flatMap(i -> paths.get(i).stream()).toList();
+        fileConcurrencyManager.withLocks(locked, () -> {
+            for (int i : group) {
+                try {
+                    apply(operations.get(i));
+                } catch (RuntimeException e) {
+                    failures[i] = e;
+                }
+            }
+        });
+    }
+
+    private void apply(BatchOperation operation) {
+        switch (operation.type()) {
+            case CREATE -> service.create(operation.path(), operation.directory());
+            case APPEND -> service.append(operation.path(), operation.data());
+            case MOVE -> service.move(operation.path(), operation.destination());
+            case COPY -> service.copy(operation.path(), operation.destination());
+            case DELETE -> service.delete(operation.path());
+        }
+    }
+
+    private static void union(int[] parent, int a, Integer b) {
+        if (b != null) {
+            parent[find(parent, a)] = find(parent, b);
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
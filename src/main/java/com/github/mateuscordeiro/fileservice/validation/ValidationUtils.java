@@ -27,6 +27,12 @@ public class ValidationUtils {
         }
     }
 
+    public static void requireAtMost(long value, long max, String fieldName) {
+        if (value > max) {
+            throw new IllegalArgumentException(fieldName + " must not exceed " + max);
+        }
+    }
+
     public static void validateWritablePath(String path) {
         if (path == null || path.isBlank()) {
             throw new InvalidPathException("Path cannot be empty for write operations");
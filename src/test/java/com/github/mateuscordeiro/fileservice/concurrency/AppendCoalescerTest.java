@@ -0,0 +1,168 @@
+package com.github.mateuscordeiro.fileservice.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.mateuscordeiro.fileservice.config.ConcurrencyProperties;
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+import com.github.mateuscordeiro.fileservice.io.FileIOManagerImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AppendCoalescerTest {
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger writeCalls = new AtomicInteger();
+    private FileConcurrencyManager concurrencyManager;
+    private AppendCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        FileIOManagerImpl fileIOManager = new FileIOManagerImpl(new FileIOProperties(), new SimpleMeterRegistry()) {
+            @Override
+            public void append(Path path, ByteBuffer[] buffers) throws IOException {
+                writeCalls.incrementAndGet();
+                super.append(path, buffers);
+            }
+        };
+        concurrencyManager = new FileConcurrencyManager(new ConcurrencyProperties(), new SimpleMeterRegistry());
+        coalescer = new AppendCoalescer(fileIOManager, concurrencyManager);
+    }
+
+    @Test
+    void append_fromSingleThread_preservesOrder() throws IOException {
+        Path file = Files.createFile(tempDir.resolve("ordered.log"));
+
+        for (int i = 0; i < 5; i++) {
+            coalescer.append(file, i + ";");
+        }
+
+        assertEquals("0;1;2;3;4;", Files.readString(file));
+    }
+
+    @Test
+    void append_whenCalledConcurrently_writesEveryRecordWhole() throws Exception {
+        Path file = Files.createFile(tempDir.resolve("concurrent.log"));
+        int threads = 16;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        coalescer.append(file, "thread-" + thread + "-line-" + i + "\n");
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        List<String> lines = Files.readAllLines(file);
+        Set<String> unique = new HashSet<>(lines);
+        assertEquals(threads * perThread, lines.size());
+        assertEquals(threads * perThread, unique.size());
+        for (int t = 0; t < threads; t++) {
+            List<String> ownLines = new ArrayList<>();
+            for (String line : lines) {
+                if (line.startsWith("thread-" + t + "-")) {
+                    ownLines.add(line);
+                }
+            }
+            for (int i = 0; i < perThread; i++) {
+                assertEquals("thread-" + t + "-line-" + i, ownLines.get(i));
+            }
+        }
+    }
+
+    @Test
+    void append_whenWritersQueueBehindTheLock_combinesThemIntoFewerWrites() throws Exception {
+        Path file = Files.createFile(tempDir.resolve("combined.log"));
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch done = new CountDownLatch(writers);
+
+        concurrencyManager.withLock(file, () -> {
+            for (int i = 0; i < writers; i++) {
+                executor.submit(() -> {
+                    try {
+                        coalescer.append(file, "x");
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            try {
+                Thread.sleep(300); // let the writers enqueue behind the held lock
+            } catch (InterruptedException ignored) {
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals("x".repeat(writers), Files.readString(file));
+        assertTrue(writeCalls.get() < writers);
+    }
+
+    @Test
+    void append_runsWhileLockedAfterTheWriteAndBeforeOtherWriters() throws Exception {
+        Path file = Files.createFile(tempDir.resolve("locked.log"));
+        List<String> seen = new ArrayList<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        coalescer.append(file, "a", () -> {
+            try {
+                seen.add(Files.readString(file));
+                executor.submit(() -> {
+                    coalescer.append(file, "b");
+                    return null;
+                });
+                Thread.sleep(200);
+                seen.add(Files.readString(file));
+            } catch (IOException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("a", "a"), seen);
+        assertEquals("ab", Files.readString(file));
+    }
+
+    @Test
+    void append_whenWriteFails_propagatesIOException() {
+        Path missing = tempDir.resolve("missing.log");
+
+        assertThrows(IOException.class, () -> coalescer.append(missing, "data"));
+    }
+}
@@ -2,24 +2,26 @@ package com.github.mateuscordeiro.fileservice.concurrency;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import java.lang.reflect.Field;
 import java.nio.file.Path;
-import java.util.Map;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
 
+import com.github.mateuscordeiro.fileservice.config.ConcurrencyProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 class FileConcurrencyManagerTest {
-    private final FileConcurrencyManager manager = new FileConcurrencyManager();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FileConcurrencyManager manager = new FileConcurrencyManager(new ConcurrencyProperties(),
+                                                                              meterRegistry);
 
     @Test
     void withLock_allowsExclusiveAccessPerPath() throws InterruptedException {
@@ -94,17 +96,198 @@ class FileConcurrencyManagerTest {
     }
 
     @Test
-    void withLock_releasesLockAfterExecution() throws Exception {
-        Path path = Path.of("somefile.txt");
+    void withLock_whenPathIsNotNormalized_usesTheSameStripe() {
+        assertEquals(manager.stripeIndex(Path.of("/data/a.txt")), manager.stripeIndex(Path.of("/data/x/../a.txt")));
+    }
+
+    @Test
+    void stripeCount_isRoundedUpToPowerOfTwo() {
+        FileConcurrencyManager striped = new FileConcurrencyManager(new ConcurrencyProperties(100), new SimpleMeterRegistry());
+
+        assertEquals(128, striped.stripeCount());
+        assertTrue(striped.stripeIndex(Path.of("/data/a.txt")) < 128);
+    }
+
+    @Test
+    void withSharedLock_allowsConcurrentReaders() throws InterruptedException {
+        Path file = Path.of("shared.txt");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch bothInside = new CountDownLatch(2);
+        AtomicBoolean overlapped = new AtomicBoolean(false);
+
+        Runnable reader = () -> manager.withSharedLock(file, () -> {
+            bothInside.countDown();
+            try {
+                overlapped.set(bothInside.await(2, TimeUnit.SECONDS));
+            } catch (InterruptedException ignored) {
+            }
+            return null;
+        });
+
+        executor.submit(reader);
+        executor.submit(reader);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertTrue(overlapped.get());
+    }
+
+    @Test
+    void withSharedLock_waitsForExclusiveHolder() throws InterruptedException {
+        Path file = Path.of("exclusive.txt");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicBoolean writerDone = new AtomicBoolean(false);
+        AtomicBoolean readerSawWrite = new AtomicBoolean(false);
+        CountDownLatch writerInside = new CountDownLatch(1);
+
+        executor.submit(() -> manager.withLock(file, () -> {
+            writerInside.countDown();
+            try {
+                Thread.sleep(100); // simulate contention
+            } catch (InterruptedException ignored) {
+            }
+            writerDone.set(true);
+        }));
+
+        assertTrue(writerInside.await(2, TimeUnit.SECONDS));
+        manager.withSharedLock(file, () -> {
+            readerSawWrite.set(writerDone.get());
+            return null;
+        });
+        executor.shutdown();
+
+        assertTrue(readerSawWrite.get());
+    }
+
+    @Test
+    void withLock_recordsWaitAndHoldTimesPerMode() {
+        Path file = Path.of("metered.txt");
 
-        manager.withLock(path, () -> {
-            // no-op
+        manager.withLock(file, () -> {
         });
+        manager.withSharedLock(file, () -> null);
+
+        assertEquals(1, meterRegistry.get("fileservice.lock.wait").tags("mode", "exclusive").timer().count());
+        assertEquals(1, meterRegistry.get("fileservice.lock.hold").tags("mode", "exclusive").timer().count());
+        assertEquals(1, meterRegistry.get("fileservice.lock.wait").tags("mode", "shared").timer().count());
+        assertEquals(0, meterRegistry.get("fileservice.lock.contention").tags("mode", "exclusive").summary().count());
+    }
+
+    @Test
+    void withLock_whenItHasToWait_recordsContention() throws Exception {
+        Path file = Path.of("contended.txt");
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> manager.withLock(file, () -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }));
+        assertTrue(holding.await(2, TimeUnit.SECONDS));
+
+        Thread waiter = new Thread(() -> manager.withLock(file, () -> {
+        }));
+        waiter.start();
+        while (waiter.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        waiter.join(2000);
+        executor.shutdown();
+
+        assertEquals(1, meterRegistry.get("fileservice.lock.contention").tags("mode", "exclusive").summary().count());
+    }
+
+    @Test
+    void withLock_onStripeHeldShared_failsInsteadOfDeadlocking() {
+        Path file = Path.of("upgraded.txt");
+
+        assertThrows(IllegalStateException.class, () -> manager.withSharedLock(file, () -> {
+            manager.withLock(file, () -> {
+            });
+            return null;
+        }));
+        assertThrows(IllegalStateException.class, () -> manager.withSharedLock(file, () -> {
+            manager.withLocks(List.of(file), () -> {
+            });
+            return null;
+        }));
+    }
+
+    @Test
+    void withSharedLock_insideWithLock_isAllowed() {
+        Path file = Path.of("downgraded.txt");
+        AtomicBoolean ran = new AtomicBoolean(false);
+
+        manager.withLock(file, () -> manager.withSharedLock(file, () -> {
+            manager.withLock(file, () -> ran.set(true));
+            return null;
+        }));
+
+        assertTrue(ran.get());
+    }
+
+    @Test
+    void withLocks_oppositeOrdersDoNotDeadlock() throws InterruptedException {
+        Path first = Path.of("first.txt");
+        Path second = pathOnOtherStripe(first);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch latch = new CountDownLatch(200);
 
-        Field lockMapField = FileConcurrencyManager.class.getDeclaredField("lockMap");
-        lockMapField.setAccessible(true);
-        Map<Path, ReentrantLock> lockMap = (Map<Path, ReentrantLock>) lockMapField.get(manager);
+        for (int i = 0; i < 100; i++) {
+            executor.submit(() -> manager.withLocks(List.of(first, second), latch::countDown));
+            executor.submit(() -> manager.withLocks(List.of(second, first), latch::countDown));
+        }
 
-        assertFalse(lockMap.containsKey(path));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    void withLocks_allowsWithLockOnHeldPaths() {
+        Path first = Path.of("first.txt");
+        Path second = pathOnOtherStripe(first);
+        AtomicBoolean ran = new AtomicBoolean(false);
+
+        manager.withLocks(List.of(first, second, first), () -> manager.withLock(second, () -> ran.set(true)));
+
+        assertTrue(ran.get());
+    }
+
+    @Test
+    void withLocks_blocksWithLockUntilReleased() throws InterruptedException {
+        Path first = Path.of("first.txt");
+        Path second = pathOnOtherStripe(first);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicBoolean batchDone = new AtomicBoolean(false);
+        AtomicBoolean writerSawBatch = new AtomicBoolean(false);
+        CountDownLatch batchInside = new CountDownLatch(1);
+
+        executor.submit(() -> manager.withLocks(List.of(first, second), () -> {
+            batchInside.countDown();
+            try {
+                Thread.sleep(100); // simulate contention
+            } catch (InterruptedException ignored) {
+            }
+            batchDone.set(true);
+        }));
+
+        assertTrue(batchInside.await(2, TimeUnit.SECONDS));
+        manager.withLock(second, () -> writerSawBatch.set(batchDone.get()));
+        executor.shutdown();
+
+        assertTrue(writerSawBatch.get());
+    }
+
+    private Path pathOnOtherStripe(Path path) {
+        for (int i = 0; ; i++) {
+            Path candidate = Path.of("other-" + i + ".txt");
+            if (manager.stripeIndex(candidate) != manager.stripeIndex(path)) {
+                return candidate;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class FileSystemBatchIntegrationTest extends AbstractFileSystemIntegrationTest {
+    @Test
+    void batch_keepsResponseOrderAndPerEntryErrors() throws Exception {
+        writeTempFile("a.txt", "AAA");
+        writeTempFile("b.txt", "BBB");
+
+        performBatch("""
+                [
+                  {"jsonrpc": "2.0", "method": "read", "params": [{"path": "a.txt", "offset": 0, "length": 3}], "id": 1},
+                  {"jsonrpc": "2.0", "method": "getFileInfo", "params": [{"path": "missing.txt"}], "id": 2},
+                  {"jsonrpc": "2.0", "method": "read", "params": [{"path": "b.txt", "offset": 0, "length": 3}], "id": 3}
+                ]
+                """)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].result.data", is("AAA")))
+                .andExpect(jsonPath("$[1].id", is(2)))
+                .andExpect(jsonPath("$[1].error.code", is(-32001)))
+                .andExpect(jsonPath("$[2].id", is(3)))
+                .andExpect(jsonPath("$[2].result.data", is("BBB")));
+    }
+
+    @Test
+    void batch_keepsEntriesOnTheSamePathInOrder() throws Exception {
+        String appends = IntStream.range(0, 20)
+                                  .mapToObj(i -> entry("append", "{\"path\": \"log/out.txt\", \"data\": \"" + i + ";\"}", i + 2))
+                                  .collect(Collectors.joining(","));
+        String expected = IntStream.range(0, 20).mapToObj(i -> i + ";").collect(Collectors.joining());
+
+        performBatch("["
+                             + entry("create", "{\"path\": \"log/out.txt\"}", 1) + ","
+                             + appends + ","
+                             + entry("read", "{\"path\": \"log/./out.txt\", \"offset\": 0, \"length\": 100}", 99)
+                             + "]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(22)))
+                .andExpect(jsonPath("$[21].id", is(99)))
+                .andExpect(jsonPath("$[21].result.data", is(expected)));
+    }
+
+    @Test
+    void batch_ordersEntriesAgainstThePathsOfNestedOperations() throws Exception {
+        String operations = IntStream.range(0, 20)
+                                     .mapToObj(i -> "{\"op\": \"append\", \"path\": \"nested/out.txt\", "
+                                             + "\"data\": \"" + i + ";\"}")
+                                     .collect(Collectors.joining(","));
+        String expected = IntStream.range(0, 20).mapToObj(i -> i + ";").collect(Collectors.joining());
+
+        performBatch("["
+                             + entry("create", "{\"path\": \"nested/out.txt\"}", 1) + ","
+                             + entry("executeBatch", "{\"operations\": [" + operations + "]}", 2) + ","
+                             + entry("read", "{\"path\": \"nested/out.txt\", \"offset\": 0, \"length\": 100}", 3)
+                             + "]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[2].result.data", is(expected)));
+    }
+
+    @Test
+    void batch_omitsNotificationsFromTheResponse() throws Exception {
+        writeTempFile("n.txt", "N");
+
+        performBatch("""
+                [
+                  {"jsonrpc": "2.0", "method": "getFileInfo", "params": [{"path": "n.txt"}]},
+                  {"jsonrpc": "2.0", "method": "getFileInfo", "params": [{"path": "n.txt"}], "id": 7}
+                ]
+                """)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(7)))
+                .andExpect(jsonPath("$[0].result.name", is("n.txt")));
+    }
+
+    private String entry(String method, String params, int id) {
+        return String.format("{\"jsonrpc\": \"2.0\", \"method\": \"%s\", \"params\": [%s], \"id\": %d}",
+                             method, params, id);
+    }
+
+    private ResultActions performBatch(String body) throws Exception {
+        return mockMvc.perform(post("/filesystem")
+                                       .contentType(MediaType.APPLICATION_JSON)
+                                       .content(body));
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.AppendRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ChecksumRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest(properties = "fileservice.checksum.block-size=4B")
+@AutoConfigureMockMvc
+public class FileSystemChecksumIntegrationTest extends AbstractFileSystemIntegrationTest {
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void checksum_returnsBlockDigestsAndFollowsAppends() throws Exception {
+        writeTempFile("data.txt", "abcdefghij");
+
+        String before = performRpc("checksum", ChecksumRequest.builder().path("data.txt").build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.size", is(10)))
+                .andExpect(jsonPath("$.result.blockSize", is(4)))
+                .andExpect(jsonPath("$.result.blocks", hasSize(3)))
+                .andExpect(jsonPath("$.result.blocks[2].length", is(2)))
+                .andExpect(jsonPath("$.result.blocks[2].sha256", is(sha256Hex("ij"))))
+                .andReturn().getResponse().getContentAsString();
+        String digestBefore = objectMapper.readTree(before).at("/result/digest").asText();
+
+        performRpc("append", AppendRequest.builder().path("data.txt").data("klm").build())
+                .andExpect(status().isOk());
+
+        performRpc("checksum", ChecksumRequest.builder().path("data.txt").build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.size", is(13)))
+                .andExpect(jsonPath("$.result.blocks", hasSize(4)))
+                .andExpect(jsonPath("$.result.blocks[2].sha256", is(sha256Hex("ijkl"))))
+                .andExpect(jsonPath("$.result.digest", not(digestBefore)));
+        assertEquals(64, digestBefore.length());
+    }
+
+    @Test
+    void checksum_missingFile_returnsNotFoundError() throws Exception {
+        performRpc("checksum", ChecksumRequest.builder().path("missing.txt").build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code", is(-32001)));
+    }
+
+    private static String sha256Hex(String content) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ListChildrenRequest;
+import com.github.mateuscordeiro.fileservice.testutil.JsonRpcRequestFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class FileSystemCompressionIntegrationTest extends AbstractFileSystemIntegrationTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void largeResponse_withGzipAccepted_isGzipped() throws Exception {
+        createListing(100);
+
+        MockHttpServletResponse response = listChildren("gzip, deflate");
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        JsonNode body = objectMapper.readTree(new GZIPInputStream(content(response)));
+        assertEquals(100, body.get("result").size());
+    }
+
+    @Test
+    void largeResponse_withOnlyDeflateAcceptable_isDeflated() throws Exception {
+        createListing(100);
+
+        MockHttpServletResponse response = listChildren("gzip;q=0, deflate");
+
+        assertEquals("deflate", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        JsonNode body = objectMapper.readTree(new InflaterInputStream(content(response)));
+        assertEquals(100, body.get("result").size());
+    }
+
+    @Test
+    void largeResponse_withoutAcceptEncoding_isPlain() throws Exception {
+        createListing(100);
+
+        MockHttpServletResponse response = listChildren(null);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(100, objectMapper.readTree(response.getContentAsByteArray()).get("result").size());
+    }
+
+    @Test
+    void responseBelowMinSize_isPlain() throws Exception {
+        writeTempFile("small.txt", "x");
+
+        mockMvc.perform(post("/filesystem")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                                .content(JsonRpcRequestFactory.createRequest("getFileInfo",
+                                                                             Map.of("path", "small.txt"))))
+               .andExpect(status().isOk())
+               .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+               .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    private void createListing(int count) throws IOException {
+        createTempFolder("dir");
+        for (int i = 0; i < count; i++) {
+            writeTempFile("dir/file-" + i + ".txt", "x");
+        }
+    }
+
+    private MockHttpServletResponse listChildren(String acceptEncoding) throws Exception {
+        MockHttpServletRequestBuilder request = post("/filesystem")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonRpcRequestFactory.createRequest("listChildren",
+                                                             ListChildrenRequest.builder().path("dir").build()));
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+    }
+
+    private static InputStream content(MockHttpServletResponse response) {
+        return new ByteArrayInputStream(response.getContentAsByteArray());
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class FileSystemContentIntegrationTest extends AbstractFileSystemIntegrationTest {
+    @Test
+    void download_withoutRange_returnsWholeFile() throws Exception {
+        writeTempFile("data.txt", "Hello World");
+
+        mockMvc.perform(get("/filesystem/content").param("path", "data.txt"))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+               .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 11))
+               .andExpect(content().string("Hello World"));
+    }
+
+    @Test
+    void download_withRange_returnsPartialContent() throws Exception {
+        writeTempFile("chunk.txt", "abcdefghij");
+
+        mockMvc.perform(get("/filesystem/content").param("path", "chunk.txt").header(HttpHeaders.RANGE, "bytes=2-5"))
+               .andExpect(status().isPartialContent())
+               .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+               .andExpect(content().string("cdef"));
+    }
+
+    @Test
+    void download_withSuffixRange_returnsTail() throws Exception {
+        writeTempFile("tail.txt", "abcdefghij");
+
+        mockMvc.perform(get("/filesystem/content").param("path", "tail.txt").header(HttpHeaders.RANGE, "bytes=-3"))
+               .andExpect(status().isPartialContent())
+               .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+               .andExpect(content().string("hij"));
+    }
+
+    @Test
+    void download_withUnsatisfiableRange_returns416() throws Exception {
+        writeTempFile("short.txt", "abc");
+
+        mockMvc.perform(get("/filesystem/content").param("path", "short.txt").header(HttpHeaders.RANGE, "bytes=10-20"))
+               .andExpect(status().isRequestedRangeNotSatisfiable())
+               .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */3"));
+    }
+
+    @Test
+    void download_binaryFile_returnsExactBytes() throws Exception {
+        byte[] data = new byte[256];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        Files.write(resolveTemp("binary.bin"), data);
+
+        mockMvc.perform(get("/filesystem/content").param("path", "binary.bin").header(HttpHeaders.RANGE, "bytes=128-"))
+               .andExpect(status().isPartialContent())
+               .andExpect(content().bytes(Arrays.copyOfRange(data, 128, 256)));
+    }
+
+    @Test
+    void download_whenFileDoesNotExist_returns404() throws Exception {
+        mockMvc.perform(get("/filesystem/content").param("path", "missing.txt"))
+               .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void download_whenPathIsDirectory_returns400() throws Exception {
+        createTempFolder("adir");
+
+        mockMvc.perform(get("/filesystem/content").param("path", "adir"))
+               .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.AppendRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ApplyDeltaRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ReadRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.SignatureRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class FileSystemDeltaIntegrationTest extends AbstractFileSystemIntegrationTest {
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void applyDelta_rebuildsFileFromBlocksAndLiterals() throws Exception {
+        writeTempFile("data.txt", "abcdefghij");
+
+        String version = signatures("data.txt");
+
+        performRpc("applyDelta", ApplyDeltaRequest.builder()
+                                                   .path("data.txt")
+                                                   .baseVersion(version)
+                                                   .blockSize(4L)
+                                                   .ops(List.of(
+                                                           ApplyDeltaRequest.Op.builder().block(0L).build(),
+                                                           ApplyDeltaRequest.Op.builder()
+                                                                               .data(bytes("XYZW"))
+                                                                               .build(),
+                                                           ApplyDeltaRequest.Op.builder().block(2L).build()))
+                                                   .build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.size", is(10)));
+
+        assertEquals("abcdXYZWij", Files.readString(resolveTemp("data.txt")));
+        try (Stream<Path> entries = Files.list(tempDir)) {
+            assertEquals(1, entries.count()); // the temp file was renamed, not left behind
+        }
+        performRpc("read", ReadRequest.builder().path("data.txt").offset(0).length(10).build())
+                .andExpect(jsonPath("$.result.data", is("abcdXYZWij")));
+    }
+
+    @Test
+    void applyDelta_baseChangedSinceSignatures_returnsConflictAndKeepsFile() throws Exception {
+        writeTempFile("data.txt", "abcdefghij");
+        String version = signatures("data.txt");
+
+        performRpc("append", AppendRequest.builder().path("data.txt").data("k").build())
+                .andExpect(status().isOk());
+
+        performRpc("applyDelta", ApplyDeltaRequest.builder()
+                                                   .path("data.txt")
+                                                   .baseVersion(version)
+                                                   .blockSize(4L)
+                                                   .ops(List.of(ApplyDeltaRequest.Op.builder().block(0L).build()))
+                                                   .build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code", is(-32006)));
+
+        assertEquals("abcdefghijk", Files.readString(resolveTemp("data.txt")));
+    }
+
+    @Test
+    void applyDelta_opWithBothBlockAndData_returnsInvalidParams() throws Exception {
+        writeTempFile("data.txt", "abcd");
+
+        performRpc("applyDelta", ApplyDeltaRequest.builder()
+                                                   .path("data.txt")
+                                                   .baseVersion("4-0")
+                                                   .blockSize(4L)
+                                                   .ops(List.of(ApplyDeltaRequest.Op.builder()
+                                                                                    .block(0L)
+                                                                                    .data(bytes("x"))
+                                                                                    .build()))
+                                                   .build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code", is(-32602)));
+    }
+
+    private String signatures(String path) throws Exception {
+        String response = performRpc("getSignatures", SignatureRequest.builder().path(path).blockSize(4L).build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.size", is(10)))
+                .andExpect(jsonPath("$.result.blocks", hasSize(3)))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).at("/result/version").asText();
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
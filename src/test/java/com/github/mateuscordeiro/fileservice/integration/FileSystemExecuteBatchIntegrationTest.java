@@ -0,0 +1,98 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ExecuteBatchRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ExecuteBatchRequest.Operation;
+
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class FileSystemExecuteBatchIntegrationTest extends AbstractFileSystemIntegrationTest {
+    @Test
+    void executeBatch_dependentOperations_runInRequestOrder() throws Exception {
+        List<Operation> operations = List.of(
+                Operation.builder().op("create").path("dir").directory(true).build(),
+                Operation.builder().op("create").path("dir/log.txt").build(),
+                Operation.builder().op("append").path("dir/log.txt").data("hello").build(),
+                Operation.builder().op("copy").source("dir/log.txt").destination("copy.txt").build(),
+                Operation.builder().op("move").source("dir/log.txt").destination("dir/moved.txt").build());
+
+        performRpc("executeBatch", new ExecuteBatchRequest(operations))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.results", hasSize(5)))
+                .andExpect(jsonPath("$.result.results[*].ok", is(List.of(true, true, true, true, true))));
+
+        assertEquals("hello", Files.readString(resolveTemp("copy.txt")));
+        assertEquals("hello", Files.readString(resolveTemp("dir/moved.txt")));
+        assertFalse(Files.exists(resolveTemp("dir/log.txt")));
+    }
+
+    @Test
+    void executeBatch_independentOperations_allApplied() throws Exception {
+        List<Operation> operations = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            operations.add(Operation.builder().op("create").path("file" + i + ".txt").build());
+            operations.add(Operation.builder().op("append").path("file" + i + ".txt").data("data" + i).build());
+        }
+
+        performRpc("executeBatch", new ExecuteBatchRequest(operations))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.results", hasSize(100)));
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals("data" + i, Files.readString(resolveTemp("file" + i + ".txt")));
+        }
+    }
+
+    @Test
+    void executeBatch_failedOperation_reportsErrorAndRunsTheRest() throws Exception {
+        writeTempFile("existing.txt", "content");
+        List<Operation> operations = List.of(
+                Operation.builder().op("delete").path("missing.txt").build(),
+                Operation.builder().op("create").path("existing.txt").build(),
+                Operation.builder().op("delete").path("existing.txt").build());
+
+        performRpc("executeBatch", new ExecuteBatchRequest(operations))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.results[0].ok", is(false)))
+                .andExpect(jsonPath("$.result.results[0].error.code", is(-32001)))
+                .andExpect(jsonPath("$.result.results[1].error.code", is(-32002)))
+                .andExpect(jsonPath("$.result.results[2].ok", is(true)))
+                .andExpect(jsonPath("$.result.results[2].error", nullValue()));
+
+        assertTrue(Files.notExists(resolveTemp("existing.txt")));
+    }
+
+    @Test
+    void executeBatch_pathEscapingRoot_failsOnlyThatOperation() throws Exception {
+        List<Operation> operations = List.of(
+                Operation.builder().op("create").path("../outside.txt").build(),
+                Operation.builder().op("create").path("inside.txt").build());
+
+        performRpc("executeBatch", new ExecuteBatchRequest(operations))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.results[0].error.code", is(-32602)))
+                .andExpect(jsonPath("$.result.results[1].ok", is(true)));
+    }
+
+    @Test
+    void executeBatch_unknownOp_returnsInvalidParams() throws Exception {
+        performRpc("executeBatch", new ExecuteBatchRequest(List.of(Operation.builder().op("chmod").path("a").build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code", is(-32602)));
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.FollowRequest;
+
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest(properties = "fileservice.follow.watch=false")
+@AutoConfigureMockMvc
+public class FileSystemFollowIntegrationTest extends AbstractFileSystemIntegrationTest {
+    @Test
+    void follow_behindEndOfFile_returnsNewDataAndNextOffset() throws Exception {
+        writeTempFile("log.txt", "line1\nline2\n");
+
+        performRpc("follow", FollowRequest.builder().path("log.txt").offset(6).length(100).build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.data", is("line2\n")))
+                .andExpect(jsonPath("$.result.nextOffset", is(12)))
+                .andExpect(jsonPath("$.result.size", is(12)));
+    }
+
+    @Test
+    void follow_atEndOfFile_timesOutWithNoData() throws Exception {
+        writeTempFile("log.txt", "line1\n");
+
+        performRpc("follow", FollowRequest.builder().path("log.txt").offset(6).length(100).timeoutMillis(50L).build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.data", is("")))
+                .andExpect(jsonPath("$.result.nextOffset", is(6)));
+    }
+
+    @Test
+    void follow_missingFile_returnsNotFoundError() throws Exception {
+        performRpc("follow", FollowRequest.builder().path("missing.txt").offset(0).length(10).build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code", is(-32001)));
+    }
+}
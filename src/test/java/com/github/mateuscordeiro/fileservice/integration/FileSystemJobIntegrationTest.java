@@ -0,0 +1,83 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.nio.file.Files;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.ResultActions;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.CopyRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.DeleteRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.JobRequest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class FileSystemJobIntegrationTest extends AbstractFileSystemIntegrationTest {
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void copy_async_returnsJobAndReportsProgress() throws Exception {
+        writeTempFile("data/a.txt", "abc");
+        writeTempFile("data/sub/b.txt", "defgh");
+
+        JsonNode submitted = resultOf(performRpc("copy", CopyRequest.builder()
+                                                                    .source("data")
+                                                                    .destination("backup")
+                                                                    .async(true)
+                                                                    .build()));
+        assertEquals("copy", submitted.get("operation").asText());
+
+        JsonNode status = awaitFinished(submitted.get("id").asText());
+
+        assertEquals("SUCCEEDED", status.get("state").asText());
+        assertEquals(2, status.get("filesProcessed").asLong());
+        assertEquals(8, status.get("bytesProcessed").asLong());
+        assertEquals("defgh", Files.readString(resolveTemp("backup/sub/b.txt")));
+    }
+
+    @Test
+    void delete_asyncOfMissingPath_reportsErrorInJobStatus() throws Exception {
+        JsonNode submitted = resultOf(performRpc("delete", DeleteRequest.builder()
+                                                                        .path("missing")
+                                                                        .async(true)
+                                                                        .build()));
+
+        JsonNode status = awaitFinished(submitted.get("id").asText());
+
+        assertEquals("FAILED", status.get("state").asText());
+        assertEquals(-32001, status.get("error").get("code").asInt());
+    }
+
+    @Test
+    void getJobStatus_unknownJob_returnsError() throws Exception {
+        performRpc("getJobStatus", JobRequest.builder().id("unknown").build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code", is(-32004)));
+    }
+
+    private JsonNode awaitFinished(String id) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (true) {
+            JsonNode status = resultOf(performRpc("getJobStatus", JobRequest.builder().id(id).build()));
+            String state = status.get("state").asText();
+            if (!state.equals("QUEUED") && !state.equals("RUNNING") || System.currentTimeMillis() > deadline) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private JsonNode resultOf(ResultActions actions) throws Exception {
+        String body = actions.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("result");
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ReadRequest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class FileSystemMetricsIntegrationTest extends AbstractFileSystemIntegrationTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void read_missingFile_countsErrorWithJsonRpcCode() throws Exception {
+        double before = errorCount("-32001");
+
+        performRpc("read", ReadRequest.builder()
+                                      .path("missing.txt")
+                                      .offset(0)
+                                      .length(10)
+                                      .build())
+                .andExpect(status().isOk());
+
+        assertEquals(before + 1, errorCount("-32001"));
+    }
+
+    @Test
+    void prometheusEndpoint_exposesRpcAndIoMetrics() throws Exception {
+        writeTempFile("data.txt", "Hello World");
+        performRpc("read", ReadRequest.builder()
+                                      .path("data.txt")
+                                      .offset(0)
+                                      .length(11)
+                                      .build())
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+               .andExpect(status().isOk())
+               .andExpect(content().string(containsString("fileservice_rpc_requests_seconds_bucket")))
+               .andExpect(content().string(containsString("fileservice_io_operations_seconds_count")))
+               .andExpect(content().string(containsString("fileservice_lock_wait_seconds_count")));
+    }
+
+    private double errorCount(String code) {
+        return meterRegistry.find("fileservice.rpc.errors")
+                            .tags("method", "read", "code", code)
+                            .counters()
+                            .stream()
+                            .mapToDouble(counter -> counter.count())
+                            .sum();
+    }
+}
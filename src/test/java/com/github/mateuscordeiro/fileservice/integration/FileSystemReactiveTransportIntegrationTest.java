@@ -0,0 +1,120 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.WalkRequest;
+import com.github.mateuscordeiro.fileservice.testutil.JsonRpcRequestFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.main.web-application-type=reactive", "fileservice.reactive.chunk-size=16B"})
+public class FileSystemReactiveTransportIntegrationTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private RootPathProperties rootPathProperties;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setup() {
+        rootPathProperties.setRoot(tempDir);
+    }
+
+    @Test
+    void rpc_overNetty_dispatchesToTheSameHandler() throws Exception {
+        Files.writeString(tempDir.resolve("data.txt"), "Hello World");
+
+        webTestClient.post().uri("/filesystem")
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .bodyValue(JsonRpcRequestFactory.createRequest("getFileInfo", Map.of("path", "data.txt")))
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectBody()
+                     .jsonPath("$.result.name").isEqualTo("data.txt")
+                     .jsonPath("$.result.size").isEqualTo(11);
+
+        webTestClient.post().uri("/filesystem")
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .bodyValue(JsonRpcRequestFactory.createRequest("getFileInfo", Map.of("path", "missing")))
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectBody()
+                     .jsonPath("$.error.code").isEqualTo(-32001);
+    }
+
+    @Test
+    void walk_overNetty_streamsResponseInChunks() throws Exception {
+        Path dir = Files.createDirectories(tempDir.resolve("dir"));
+        for (int i = 0; i < 50; i++) {
+            Files.writeString(dir.resolve("file-" + i + ".txt"), "x");
+        }
+
+        webTestClient.post().uri("/filesystem")
+                     .contentType(MediaType.APPLICATION_JSON)
+                     .bodyValue(JsonRpcRequestFactory.createRequest("walk", WalkRequest.builder()
+                                                                                      .path("dir")
+                                                                                      .include(List.of("*.txt"))
+                                                                                      .build()))
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectBody()
+                     .jsonPath("$.result.entries.length()").isEqualTo(50)
+                     .jsonPath("$.result.truncated").isEqualTo(false);
+    }
+
+    @Test
+    void walk_overNetty_withGzipAccepted_streamsCompressed() throws Exception {
+        Path dir = Files.createDirectories(tempDir.resolve("dir"));
+        for (int i = 0; i < 50; i++) {
+            Files.writeString(dir.resolve("file-" + i + ".txt"), "x");
+        }
+
+        byte[] body = webTestClient.post().uri("/filesystem")
+                                   .contentType(MediaType.APPLICATION_JSON)
+                                   .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                                   .bodyValue(JsonRpcRequestFactory.createRequest("walk", Map.of("path", "dir")))
+                                   .exchange()
+                                   .expectStatus().isOk()
+                                   .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                                   .expectBody(byte[].class).returnResult().getResponseBody();
+
+        JsonNode response = new ObjectMapper().readTree(new GZIPInputStream(new ByteArrayInputStream(body)));
+        assertEquals(50, response.get("result").get("entries").size());
+    }
+
+    @Test
+    void download_overNetty_servesRange() throws Exception {
+        Files.writeString(tempDir.resolve("chunk.txt"), "abcdefghij");
+
+        webTestClient.get().uri(uri -> uri.path("/filesystem/content").queryParam("path", "chunk.txt").build())
+                     .header(HttpHeaders.RANGE, "bytes=2-5")
+                     .exchange()
+                     .expectStatus().isEqualTo(206)
+                     .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10")
+                     .expectBody(String.class).isEqualTo("cdef");
+
+        webTestClient.get().uri(uri -> uri.path("/filesystem/content").queryParam("path", "missing").build())
+                     .exchange()
+                     .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.ReadRangesRequest;
+
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class FileSystemReadRangesIntegrationTest extends AbstractFileSystemIntegrationTest {
+    @Test
+    void readRanges_returnsEachRangeBase64EncodedInRequestOrder() throws Exception {
+        writeTempFile("data.bin", "abcdefghij");
+
+        performRpc("readRanges", ReadRangesRequest.builder()
+                                                  .path("data.bin")
+                                                  .ranges(List.of(new ReadRangesRequest.Range(6, 4),
+                                                                  new ReadRangesRequest.Range(0, 2),
+                                                                  new ReadRangesRequest.Range(1, 2)))
+                                                  .build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.data", hasSize(3)))
+                .andExpect(jsonPath("$.result.data[0]", is(base64("ghij"))))
+                .andExpect(jsonPath("$.result.data[1]", is(base64("ab"))))
+                .andExpect(jsonPath("$.result.data[2]", is(base64("bc"))));
+    }
+
+    @Test
+    void readRanges_negativeOffset_returnsInvalidParams() throws Exception {
+        writeTempFile("data.bin", "abc");
+
+        performRpc("readRanges", ReadRangesRequest.builder()
+                                                  .path("data.bin")
+                                                  .ranges(List.of(new ReadRangesRequest.Range(-1, 2)))
+                                                  .build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code", is(-32602)));
+    }
+
+    private static String base64(String content) {
+        return Base64.getEncoder().encodeToString(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.Map;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.AppendRequest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.VerifyIndexRequest;
+
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest(properties = {"fileservice.index.enabled=true", "fileservice.index.watch=false"})
+@AutoConfigureMockMvc
+public class FileSystemVerifyIndexIntegrationTest extends AbstractFileSystemIntegrationTest {
+    @Test
+    void verifyIndex_withRepair_indexesRootAndStaysConsistentAfterMutations() throws Exception {
+        writeTempFile("dir/data.txt", "abc");
+
+        performRpc("verifyIndex", VerifyIndexRequest.builder().repair(true).build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.enabled", is(true)))
+                .andExpect(jsonPath("$.result.repaired", is(true)))
+                .andExpect(jsonPath("$.result.entries", is(3)));
+
+        performRpc("append", AppendRequest.builder()
+                                          .path("dir/data.txt")
+                                          .data("def")
+                                          .build())
+                .andExpect(status().isOk());
+
+        performRpc("getFileInfo", Map.of("path", "dir/data.txt"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.size", is(6)));
+
+        performRpc("verifyIndex", VerifyIndexRequest.builder().repair(false).build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.mismatches", empty()))
+                .andExpect(jsonPath("$.result.repaired", is(false)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.mateuscordeiro.fileservice.integration;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.List;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import com.github.mateuscordeiro.fileservice.rpc.dto.request.WalkRequest;
+
+import org.junit.jupiter.api.Test;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class FileSystemWalkIntegrationTest extends AbstractFileSystemIntegrationTest {
+    @Test
+    void walk_streamsMatchingEntries() throws Exception {
+        writeTempFile("tree/a.txt", "a");
+        writeTempFile("tree/sub/b.txt", "bb");
+        writeTempFile("tree/sub/c.log", "c");
+        writeTempFile("tree/skip/d.txt", "d");
+
+        performRpc("walk", WalkRequest.builder()
+                                      .path("tree")
+                                      .include(List.of("**.txt"))
+                                      .exclude(List.of("skip"))
+                                      .build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.result.truncated", is(false)))
+                .andExpect(jsonPath("$.result.entries", hasSize(2)))
+                .andExpect(jsonPath("$.result.entries[*].name", containsInAnyOrder("a.txt", "b.txt")));
+    }
+
+    @Test
+    void walk_withLimit_marksResultTruncated() throws Exception {
+        writeTempFile("tree/a.txt", "a");
+        writeTempFile("tree/b.txt", "b");
+        writeTempFile("tree/c.txt", "c");
+
+        performRpc("walk", WalkRequest.builder().path("tree").limit(2L).build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.entries", hasSize(2)))
+                .andExpect(jsonPath("$.result.truncated", is(true)));
+    }
+
+    @Test
+    void walk_missingDirectory_returnsNotFoundError() throws Exception {
+        performRpc("walk", WalkRequest.builder().path("missing").build())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.code", is(-32001)));
+    }
+}
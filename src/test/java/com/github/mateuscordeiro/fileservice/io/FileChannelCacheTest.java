@@ -0,0 +1,102 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileChannelCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void acquire_whenPathIsCached_reusesTheOpenChannel() throws IOException {
+        FileChannelCache cache = new FileChannelCache(4, Duration.ofMinutes(1));
+        Path file = Files.writeString(tempDir.resolve("a.txt"), "a");
+
+        FileChannel first;
+        try (FileChannelCache.Handle handle = cache.acquire(file, FileChannelCache.Mode.READ)) {
+            first = handle.channel();
+        }
+        try (FileChannelCache.Handle handle = cache.acquire(file, FileChannelCache.Mode.READ)) {
+            assertSame(first, handle.channel());
+        }
+        assertTrue(first.isOpen());
+    }
+
+    @Test
+    void acquire_whenOverCapacity_neverClosesAChannelInUse() throws IOException {
+        FileChannelCache cache = new FileChannelCache(1, Duration.ofMinutes(1));
+        Path a = Files.writeString(tempDir.resolve("a.txt"), "a");
+        Path b = Files.writeString(tempDir.resolve("b.txt"), "b");
+
+        FileChannelCache.Handle inUse = cache.acquire(a, FileChannelCache.Mode.READ);
+        try (FileChannelCache.Handle other = cache.acquire(b, FileChannelCache.Mode.READ)) {
+            assertEquals(1, cache.size());
+            assertTrue(inUse.channel().isOpen());
+            assertTrue(other.channel().isOpen());
+        }
+
+        FileChannel evicted = inUse.channel();
+        inUse.close();
+        assertFalse(evicted.isOpen());
+    }
+
+    @Test
+    void invalidate_closesIdleChannelsUnderThePath() throws IOException {
+        FileChannelCache cache = new FileChannelCache(4, Duration.ofMinutes(1));
+        Path dir = Files.createDirectories(tempDir.resolve("dir"));
+        Path file = Files.writeString(dir.resolve("a.txt"), "a");
+
+        FileChannel channel;
+        try (FileChannelCache.Handle handle = cache.acquire(file, FileChannelCache.Mode.APPEND)) {
+            channel = handle.channel();
+        }
+        cache.invalidate(dir);
+
+        assertFalse(channel.isOpen());
+        assertEquals(0, cache.size());
+        try (FileChannelCache.Handle handle = cache.acquire(file, FileChannelCache.Mode.APPEND)) {
+            assertNotSame(channel, handle.channel());
+        }
+    }
+
+    @Test
+    void acquire_whenHandleWasIdleLongerThanTimeout_closesIt() throws Exception {
+        FileChannelCache cache = new FileChannelCache(4, Duration.ofMillis(10));
+        Path a = Files.writeString(tempDir.resolve("a.txt"), "a");
+        Path b = Files.writeString(tempDir.resolve("b.txt"), "b");
+
+        FileChannel idle;
+        try (FileChannelCache.Handle handle = cache.acquire(a, FileChannelCache.Mode.READ)) {
+            idle = handle.channel();
+        }
+        Thread.sleep(50);
+        try (FileChannelCache.Handle ignored = cache.acquire(b, FileChannelCache.Mode.READ)) {
+            assertFalse(idle.isOpen());
+        }
+    }
+
+    @Test
+    void acquire_whenCacheIsDisabled_closesChannelOnRelease() throws IOException {
+        FileChannelCache cache = new FileChannelCache(0, Duration.ofMinutes(1));
+        Path file = Files.writeString(tempDir.resolve("a.txt"), "a");
+
+        FileChannel channel;
+        try (FileChannelCache.Handle handle = cache.acquire(file, FileChannelCache.Mode.READ)) {
+            channel = handle.channel();
+        }
+
+        assertFalse(channel.isOpen());
+        assertEquals(0, cache.size());
+    }
+}
@@ -1,13 +1,43 @@
 package com.github.mateuscordeiro.fileservice.io;
 
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.springframework.util.unit.DataSize;
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -17,10 +47,12 @@ class FileIOManagerImplTest {
     @TempDir
     Path tempDir;
     private FileIOManagerImpl manager;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
-        manager = new FileIOManagerImpl();
+        meterRegistry = new SimpleMeterRegistry();
+        manager = new FileIOManagerImpl(new FileIOProperties(), meterRegistry);
     }
 
     @Test
@@ -74,6 +106,40 @@ class FileIOManagerImplTest {
         assertFalse(Files.exists(root));
     }
 
+    @Test
+    void deleteRecursively_deletesWideAndDeepTree() throws IOException {
+        Path root = tempDir.resolve("tree");
+        Path deep = root;
+        for (int i = 0; i < 50; i++) {
+            deep = deep.resolve("level" + i);
+        }
+        Files.createDirectories(deep);
+        Files.writeString(deep.resolve("leaf.txt"), "leaf");
+        for (int i = 0; i < 30; i++) {
+            Path dir = Files.createDirectories(root.resolve("wide" + i));
+            for (int j = 0; j < 20; j++) {
+                Files.writeString(dir.resolve("f" + j), "x");
+            }
+        }
+
+        manager.deleteRecursively(root);
+
+        assertFalse(Files.exists(root));
+    }
+
+    @Test
+    void deleteRecursively_removesSymbolicLinkWithoutFollowingIt() throws IOException {
+        Path outside = Files.createDirectories(tempDir.resolve("outside"));
+        Files.writeString(outside.resolve("keep.txt"), "keep");
+        Path root = Files.createDirectories(tempDir.resolve("with-link"));
+        Files.createSymbolicLink(root.resolve("link"), outside);
+
+        manager.deleteRecursively(root);
+
+        assertFalse(Files.exists(root));
+        assertTrue(Files.exists(outside.resolve("keep.txt")));
+    }
+
     @Test
     void copy_copiesFileToTarget() throws IOException {
         Path src = tempDir.resolve("src.txt");
@@ -129,6 +195,69 @@ class FileIOManagerImplTest {
         assertEquals("nested", Files.readString(copiedFile));
     }
 
+    @Test
+    void copyDirectory_copiesWideTreeWithEmptyDirectoriesAndLargeFiles() throws IOException {
+        Path source = tempDir.resolve("wide");
+        for (int i = 0; i < 20; i++) {
+            Path dir = Files.createDirectories(source.resolve("d" + i + "/inner"));
+            for (int j = 0; j < 10; j++) {
+                Files.writeString(dir.resolve("f" + j + ".txt"), "content-" + i + "-" + j);
+            }
+        }
+        Files.createDirectories(source.resolve("empty"));
+        byte[] large = new byte[3 * 1024 * 1024 + 7];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        Files.write(source.resolve("large.bin"), large);
+
+        Path target = tempDir.resolve("wide-copy");
+        manager.copyDirectory(source, target);
+
+        assertEquals("content-19-9", Files.readString(target.resolve("d19/inner/f9.txt")));
+        assertTrue(Files.isDirectory(target.resolve("empty")));
+        assertArrayEquals(large, Files.readAllBytes(target.resolve("large.bin")));
+        try (Stream<Path> walk = Files.walk(target)) {
+            assertEquals(20 * 10 + 1, walk.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void copyDirectoryAndDelete_withProgress_countFilesAndBytes() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("progress/sub"));
+        Files.writeString(source.resolve("a.txt"), "abc");
+        Files.writeString(source.getParent().resolve("b.txt"), "defgh");
+
+        OperationProgress copyProgress = new OperationProgress();
+        manager.copyDirectory(tempDir.resolve("progress"), tempDir.resolve("progress-copy"), copyProgress);
+        OperationProgress deleteProgress = new OperationProgress();
+        manager.deleteRecursively(tempDir.resolve("progress-copy"), deleteProgress);
+
+        assertEquals(2, copyProgress.getFiles());
+        assertEquals(8, copyProgress.getBytes());
+        assertEquals(2, deleteProgress.getFiles());
+        assertFalse(Files.exists(tempDir.resolve("progress-copy")));
+    }
+
+    @Test
+    void copyDirectoryAndDelete_whenCancelled_throwOperationCancelledException() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("cancelled"));
+        Files.writeString(source.resolve("a.txt"), "abc");
+        OperationProgress progress = new OperationProgress();
+        progress.cancel();
+
+        assertThrows(OperationCancelledException.class,
+                     () -> manager.copyDirectory(source, tempDir.resolve("cancelled-copy"), progress));
+        assertThrows(OperationCancelledException.class, () -> manager.deleteRecursively(source, progress));
+        assertTrue(Files.exists(source.resolve("a.txt")));
+    }
+
+    @Test
+    void copyDirectory_whenSourceMissing_throwsIOException() {
+        assertThrows(IOException.class,
+                     () -> manager.copyDirectory(tempDir.resolve("absent"), tempDir.resolve("target")));
+    }
+
     @Test
     void isEmptyDirectory_returnsTrueForEmptyDir() throws IOException {
         Path dir = tempDir.resolve("empty");
@@ -145,4 +274,506 @@ class FileIOManagerImplTest {
 
         assertFalse(manager.isEmptyDirectory(dir));
     }
+
+    @Test
+    void listDirectory_withMapper_returnsEntriesWithAttributes() throws IOException {
+        Path dir = tempDir.resolve("listing");
+        Files.createDirectories(dir.resolve("child"));
+        Files.writeString(dir.resolve("file.txt"), "abc");
+
+        List<String> entries = manager.listDirectory(dir, (path, attrs) ->
+                path.getFileName() + ":" + attrs.isDirectory() + ":" + (attrs.isDirectory() ? 0 : attrs.size()));
+
+        assertEquals(2, entries.size());
+        assertTrue(entries.contains("child:true:0"));
+        assertTrue(entries.contains("file.txt:false:3"));
+    }
+
+    @Test
+    void readRanges_mergesOverlappingRangesAndKeepsRequestOrder() throws IOException {
+        Path file = tempDir.resolve("ranges.bin");
+        Files.writeString(file, "abcdefghij");
+
+        List<ByteBuffer> buffers = manager.readRanges(file, List.of(
+                new ByteRange(8, 4), new ByteRange(0, 3), new ByteRange(2, 3), new ByteRange(3, 1),
+                new ByteRange(20, 2)));
+
+        assertEquals(List.of("ij", "abc", "cde", "d", ""),
+                     buffers.stream().map(buffer -> StandardCharsets.UTF_8.decode(buffer).toString()).toList());
+    }
+
+    @Test
+    void readRanges_whenRangesExceedLimits_throwsIllegalArgumentException() throws IOException {
+        FileIOProperties properties = new FileIOProperties();
+        properties.getRead().setMaxLength(DataSize.ofBytes(4));
+        properties.getRead().setMaxRanges(2);
+        FileIOManagerImpl boundedManager = new FileIOManagerImpl(properties, new SimpleMeterRegistry());
+        Path file = tempDir.resolve("bounded.bin");
+        Files.writeString(file, "abcdefghij");
+
+        assertEquals(2, boundedManager.readRanges(file, List.of(new ByteRange(0, 2), new ByteRange(1, 3))).size());
+        assertThrows(IllegalArgumentException.class,
+                     () -> boundedManager.readRanges(file, List.of(new ByteRange(0, 3), new ByteRange(5, 3))));
+        assertThrows(IllegalArgumentException.class, () -> boundedManager.readRanges(
+                file, List.of(new ByteRange(0, 1), new ByteRange(2, 1), new ByteRange(4, 1))));
+    }
+
+    @Test
+    void readRanges_rangeLongerThanIntegerMaxValue_isRejectedByTheLimit() throws IOException {
+        Path file = tempDir.resolve("sparse.bin");
+        long size = 5L * 1024 * 1024 * 1024;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1}), size - 1);
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                     () -> manager.readRanges(file, List.of(new ByteRange(0, Integer.MAX_VALUE + 2L))));
+        assertThrows(IllegalArgumentException.class, () -> manager.readRanges(
+                file, List.of(new ByteRange(0, 1), new ByteRange(1, 4L * 1024 * 1024 * 1024))));
+
+        FileIOProperties properties = new FileIOProperties();
+        properties.getRead().setMaxLength(DataSize.ofGigabytes(8));
+        FileIOManagerImpl unboundedManager = new FileIOManagerImpl(properties, new SimpleMeterRegistry());
+        assertThrows(IllegalArgumentException.class,
+                     () -> unboundedManager.readRanges(file, List.of(new ByteRange(0, 3L * 1024 * 1024 * 1024))));
+    }
+
+    @Test
+    void read_whenFileIsAboveMmapThreshold_readsAcrossMappedWindows() throws IOException {
+        FileIOManagerImpl mmapManager = new FileIOManagerImpl(mmapProperties(), new SimpleMeterRegistry());
+        Path file = tempDir.resolve("mapped.txt");
+        Files.writeString(file, "abcdefghij");
+
+        assertEquals("cdefgh", mmapManager.read(file, 2, 6));
+        assertEquals("ij", mmapManager.read(file, 8, 100));
+        assertEquals("", mmapManager.read(file, 100, 10));
+    }
+
+    @Test
+    void read_whenMappedFileIsAppended_seesNewData() throws IOException {
+        FileIOManagerImpl mmapManager = new FileIOManagerImpl(mmapProperties(), new SimpleMeterRegistry());
+        Path file = tempDir.resolve("mapped-append.txt");
+        Files.writeString(file, "abcde");
+
+        assertEquals("abcde", mmapManager.read(file, 0, 100));
+        mmapManager.writeString(file, "fgh");
+
+        assertEquals("abcdefgh", mmapManager.read(file, 0, 100));
+    }
+
+    @Test
+    void read_whenMultiByteCharacterSpansChunks_decodesItWhole() throws IOException {
+        FileIOProperties properties = new FileIOProperties();
+        properties.getRead().setChunkSize(DataSize.ofBytes(3));
+        FileIOManagerImpl chunkedManager = new FileIOManagerImpl(properties, new SimpleMeterRegistry());
+        Path file = tempDir.resolve("utf8.txt");
+        Files.writeString(file, "a\u00e9\u20ac\uD83D\uDE00b");
+
+        assertEquals("a\u00e9\u20ac\uD83D\uDE00b", chunkedManager.read(file, 0, 100));
+    }
+
+    @Test
+    void read_textLongerThanTheDecodeChunk_isDecodedWholeByBothPaths() throws IOException {
+        FileIOManagerImpl mmapManager = new FileIOManagerImpl(mmapProperties(), new SimpleMeterRegistry());
+        Path file = tempDir.resolve("long.txt");
+        String text = "a\u00e9\u20ac\uD83D\uDE00".repeat(5000);
+        Files.writeString(file, text);
+
+        assertEquals(text, manager.read(file, 0, 100_000));
+        assertEquals(text, mmapManager.read(file, 0, 100_000));
+    }
+
+    @Test
+    void read_whenLengthExceedsMaxLength_throwsIllegalArgumentException() throws IOException {
+        FileIOProperties properties = new FileIOProperties();
+        properties.getRead().setMaxLength(DataSize.ofBytes(8));
+        FileIOManagerImpl boundedManager = new FileIOManagerImpl(properties, new SimpleMeterRegistry());
+        Path file = tempDir.resolve("bounded.txt");
+        Files.writeString(file, "abc");
+
+        assertThrows(IllegalArgumentException.class, () -> boundedManager.read(file, 0, 9));
+    }
+
+    @Test
+    void read_withChunkConsumer_streamsRequestedRange() throws IOException {
+        FileIOProperties properties = new FileIOProperties();
+        properties.getRead().setChunkSize(DataSize.ofBytes(2));
+        FileIOManagerImpl chunkedManager = new FileIOManagerImpl(properties, new SimpleMeterRegistry());
+        Path file = tempDir.resolve("stream.txt");
+        Files.writeString(file, "abcdefghij");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long transferred = chunkedManager.read(file, 1, 5, chunk -> {
+            byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            out.write(bytes);
+        });
+
+        assertEquals(5, transferred);
+        assertEquals("bcdef", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void transferTo_writesRequestedRangeToChannel() throws IOException {
+        Path file = tempDir.resolve("transfer.bin");
+        Files.writeString(file, "abcdefghij");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long transferred = manager.transferTo(file, 3, 100, Channels.newChannel(out));
+
+        assertEquals(7, transferred);
+        assertEquals("defghij", out.toString(StandardCharsets.UTF_8));
+    }
+
+    private FileIOProperties mmapProperties() {
+        FileIOProperties properties = new FileIOProperties();
+        properties.getMmap().setThreshold(DataSize.ofBytes(0));
+        properties.getMmap().setWindowSize(DataSize.ofBytes(4));
+        properties.getMmap().setMaxWindows(2);
+        return properties;
+    }
+
+    @Test
+    void appendAndRead_recordOperationTimersAndByteCounters() throws IOException {
+        Path file = tempDir.resolve("metered.txt");
+        manager.createFile(file);
+        manager.writeString(file, "abcdef");
+        manager.read(file, 0, 4);
+
+        assertEquals(6.0, meterRegistry.get("fileservice.io.bytes").tag("direction", "append").counter().count());
+        assertEquals(4.0, meterRegistry.get("fileservice.io.bytes").tag("direction", "read").counter().count());
+        assertEquals(1, meterRegistry.get("fileservice.io.operations").tag("operation", "append").timer().count());
+        assertEquals(1, meterRegistry.get("fileservice.io.operations").tag("operation", "read").timer().count());
+    }
+
+    @Test
+    void walk_visitsEntriesUpToMaxDepthAndSkipsPrunedDirectories() throws IOException {
+        Files.createDirectories(tempDir.resolve("a/b/c"));
+        Files.createDirectories(tempDir.resolve("skip/inner"));
+        Files.writeString(tempDir.resolve("a/one.txt"), "1");
+        Files.writeString(tempDir.resolve("a/b/two.txt"), "2");
+
+        List<Path> visited = Collections.synchronizedList(new ArrayList<>());
+        long count = manager.walk(tempDir, 2, (path, attrs) -> path.getFileName().toString().equals("skip"),
+                                  (path, attrs) -> visited.add(tempDir.relativize(path)));
+
+        assertEquals(3, count);
+        assertEquals(Set.of(Path.of("a"), Path.of("a/b"), Path.of("a/one.txt")), Set.copyOf(visited));
+        assertEquals(1, meterRegistry.get("fileservice.io.operations").tag("operation", "walk").timer().count());
+    }
+
+    @Test
+    void walk_stalledConsumer_doesNotHoldUpCopies() throws Exception {
+        FileIOProperties properties = new FileIOProperties();
+        properties.getTree().setParallelism(1);
+        FileIOManagerImpl singleThreaded = new FileIOManagerImpl(properties, new SimpleMeterRegistry());
+        Path walked = Files.createDirectories(tempDir.resolve("walked"));
+        for (int i = 0; i < 3000; i++) {
+            Files.createFile(walked.resolve("file-" + i));
+        }
+        Path source = Files.createDirectories(tempDir.resolve("source/nested"));
+        Files.writeString(source.resolve("file.txt"), "content");
+
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Long> walk = executor.submit(() -> singleThreaded.walk(walked, 1, (path, attrs) -> false,
+                                                                      (path, attrs) -> {
+            stalled.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            return true;
+        }));
+        try {
+            assertTrue(stalled.await(5, TimeUnit.SECONDS));
+            // Long enough for the walk to fill its queue and block
+            Thread.sleep(200);
+
+            CompletableFuture.runAsync(() -> {
+                try {
+                    singleThreaded.copyDirectory(tempDir.resolve("source"), tempDir.resolve("target"));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).get(5, TimeUnit.SECONDS);
+            assertEquals("content", Files.readString(tempDir.resolve("target/nested/file.txt")));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertEquals(3000, walk.get(5, TimeUnit.SECONDS));
+        singleThreaded.close();
+    }
+
+    @Test
+    void walk_stopsWhenVisitorReturnsFalse() throws IOException {
+        for (int i = 0; i < 2_000; i++) {
+            Files.createFile(tempDir.resolve("file-" + i));
+        }
+
+        AtomicInteger visits = new AtomicInteger();
+        long count = manager.walk(tempDir, Integer.MAX_VALUE, (path, attrs) -> false,
+                                  (path, attrs) -> visits.incrementAndGet() < 10);
+
+        assertEquals(9, count);
+        assertEquals(10, visits.get());
+    }
+
+    @Test
+    void digestBlocks_hashesEachBlockFromFirstBlock() throws Exception {
+        Path file = tempDir.resolve("blocks.bin");
+        Files.writeString(file, "abcdefghij");
+
+        List<BlockDigest> all = manager.digestBlocks(file, 10, 4, 0);
+        List<BlockDigest> tail = manager.digestBlocks(file, 10, 4, 1);
+
+        assertEquals(3, all.size());
+        assertEquals(8, all.get(2).offset());
+        assertEquals(2, all.get(2).length());
+        CRC32C crc = new CRC32C();
+        crc.update("efgh".getBytes(StandardCharsets.UTF_8));
+        assertEquals((int) crc.getValue(), all.get(1).crc32c());
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest("ij".getBytes(StandardCharsets.UTF_8)),
+                          all.get(2).sha256());
+        assertEquals(2, tail.size());
+        assertArrayEquals(all.get(1).sha256(), tail.get(0).sha256());
+    }
+
+    @Test
+    void blockSignatures_matchRollingChecksumOfEachBlock() throws Exception {
+        Path file = tempDir.resolve("blocks.bin");
+        Files.writeString(file, "abcdefghij");
+
+        List<BlockSignature> signatures = manager.blockSignatures(file, 10, 4);
+
+        assertEquals(3, signatures.size());
+        byte[] bytes = "abcdefghij".getBytes(StandardCharsets.UTF_8);
+        assertEquals(RollingChecksum.of(bytes, 4, 4).value(), signatures.get(1).rolling());
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest("ij".getBytes(StandardCharsets.UTF_8)),
+                          signatures.get(2).sha256());
+    }
+
+    @Test
+    void writeDelta_combinesBaseBlocksAndLiterals() throws Exception {
+        Path base = tempDir.resolve("base.txt");
+        Path target = tempDir.resolve("target.txt");
+        Files.writeString(base, "abcdefghij");
+
+        long written = manager.writeDelta(base, 10, 4, List.of(
+                DeltaOp.blocks(2, 1),
+                DeltaOp.literal("XY".getBytes(StandardCharsets.UTF_8)),
+                DeltaOp.blocks(0, 2)), target);
+
+        assertEquals(12, written);
+        assertEquals("ijXYabcdefgh", Files.readString(target));
+    }
+
+    @Test
+    void writeDelta_rejectsBlockBeyondBase() throws Exception {
+        Path base = tempDir.resolve("base.txt");
+        Files.writeString(base, "abcd");
+
+        assertThrows(IllegalArgumentException.class,
+                     () -> manager.writeDelta(base, 4, 4, List.of(DeltaOp.blocks(1, 1)), tempDir.resolve("t")));
+    }
+
+    @Test
+    void replace_swapsFileAndDropsCachedChannel() throws Exception {
+        Path file = tempDir.resolve("file.txt");
+        Path temp = tempDir.resolve(".file.txt.tmp");
+        Files.writeString(file, "old");
+        Files.writeString(temp, "newer");
+        assertEquals("old", manager.read(file, 0, 10));
+
+        manager.replace(temp, file);
+
+        assertFalse(Files.exists(temp));
+        assertEquals("newer", manager.read(file, 0, 10));
+    }
+
+    @Test
+    void copy_withContentStore_linksCopiesToOneBlob() throws IOException {
+        FileIOManagerImpl casManager = new FileIOManagerImpl(casProperties(), new SimpleMeterRegistry());
+        Path source = tempDir.resolve("artifact.bin");
+        Files.writeString(source, "artifact");
+        Files.createDirectories(tempDir.resolve("a"));
+
+        casManager.copy(source, tempDir.resolve("a/artifact.bin"), new OperationProgress());
+        casManager.copyDirectory(tempDir.resolve("a"), tempDir.resolve("b"), new OperationProgress());
+
+        Object key = Files.readAttributes(source, BasicFileAttributes.class).fileKey();
+        assertEquals(key, Files.readAttributes(tempDir.resolve("b/artifact.bin"), BasicFileAttributes.class)
+                               .fileKey());
+        // The source itself became the blob: source, blob and both copies are one inode
+        assertEquals(4, Files.getAttribute(source, "unix:nlink"));
+        assertTrue(casManager.isInternal(tempDir.resolve(".cas/ab")));
+    }
+
+    @Test
+    void copyDirectory_skipsTheContentStore() throws IOException {
+        FileIOProperties properties = casProperties();
+        properties.getCas().setDir(tempDir.resolve("src/.cas"));
+        FileIOManagerImpl casManager = new FileIOManagerImpl(properties, new SimpleMeterRegistry());
+        Files.writeString(tempDir.resolve("src/artifact.bin"), "artifact");
+        casManager.copy(tempDir.resolve("src/artifact.bin"), tempDir.resolve("src/copy.bin"), new OperationProgress());
+
+        casManager.copyDirectory(tempDir.resolve("src"), tempDir.resolve("dst"), new OperationProgress());
+
+        assertEquals("artifact", Files.readString(tempDir.resolve("dst/copy.bin")));
+        assertFalse(Files.exists(tempDir.resolve("dst/.cas")));
+    }
+
+    @Test
+    void append_toStoredCopy_writesPrivateCopyAndKeepsOthersIntact() throws IOException {
+        FileIOManagerImpl casManager = new FileIOManagerImpl(casProperties(), new SimpleMeterRegistry());
+        Path source = tempDir.resolve("artifact.bin");
+        Files.writeString(source, "artifact");
+        casManager.copy(source, tempDir.resolve("one.bin"), new OperationProgress());
+        casManager.copy(source, tempDir.resolve("two.bin"), new OperationProgress());
+        assertEquals("artifact", casManager.read(tempDir.resolve("one.bin"), 0, 100));
+
+        casManager.writeString(tempDir.resolve("one.bin"), "+1");
+        casManager.writeString(source, "+s");
+
+        assertEquals("artifact+1", casManager.read(tempDir.resolve("one.bin"), 0, 100));
+        assertEquals("artifact+s", casManager.read(source, 0, 100));
+        assertEquals("artifact", Files.readString(tempDir.resolve("two.bin")));
+        assertEquals(1, Files.getAttribute(tempDir.resolve("one.bin"), "unix:nlink"));
+    }
+
+    @Test
+    void copy_withContentStore_smallerThanMinSize_copiesBytes() throws IOException {
+        FileIOProperties properties = casProperties();
+        properties.getCas().setMinSize(DataSize.ofKilobytes(1));
+        FileIOManagerImpl casManager = new FileIOManagerImpl(properties, new SimpleMeterRegistry());
+        Path source = tempDir.resolve("small.txt");
+        Files.writeString(source, "small");
+
+        casManager.copy(source, tempDir.resolve("copy.txt"), new OperationProgress());
+
+        assertEquals("small", Files.readString(tempDir.resolve("copy.txt")));
+        assertEquals(1, Files.getAttribute(tempDir.resolve("copy.txt"), "unix:nlink"));
+    }
+
+    @Test
+    void contentStoreSweep_removesBlobsNoFileLinksTo() throws IOException {
+        Path store = tempDir.resolve(".cas");
+        ContentStore contentStore = new ContentStore(store, 0, Duration.ofMinutes(10), Runnable::run);
+        Path source = tempDir.resolve("artifact.bin");
+        Files.writeString(source, "artifact");
+        contentStore.copy(source, tempDir.resolve("copy.bin"), new OperationProgress());
+
+        contentStore.sweep();
+        assertEquals(1, blobCount(store));
+
+        Files.delete(tempDir.resolve("copy.bin"));
+        contentStore.sweep();
+        assertEquals(1, blobCount(store));
+
+        Files.delete(source);
+        contentStore.sweep();
+        assertEquals(0, blobCount(store));
+    }
+
+    @Test
+    void journaledAppend_isReplayedWhenTheFileLostIt() throws IOException {
+        Path file = tempDir.resolve("log.txt");
+        Files.writeString(file, "start;");
+        FileIOManagerImpl journaled = new FileIOManagerImpl(journalProperties(), new SimpleMeterRegistry());
+        journaled.append(file, new ByteBuffer[]{ByteBuffer.wrap("one;".getBytes(StandardCharsets.UTF_8)),
+                                                ByteBuffer.wrap("two;".getBytes(StandardCharsets.UTF_8))});
+        journaled.writeString(file, "three;");
+        assertEquals("start;one;two;three;", Files.readString(file));
+
+        // A crash before the file reached the disk: only part of the appended bytes survived
+        Files.writeString(file, "start;one;tw");
+        new FileIOManagerImpl(journalProperties(), new SimpleMeterRegistry()).close();
+
+        assertEquals("start;one;two;three;", Files.readString(file));
+    }
+
+    @Test
+    void journalReplay_skipsAppendsThatReachedTheFile() throws IOException {
+        Path file = tempDir.resolve("log.txt");
+        Files.createFile(file);
+        FileIOManagerImpl journaled = new FileIOManagerImpl(journalProperties(), new SimpleMeterRegistry());
+        journaled.writeString(file, "once");
+
+        new FileIOManagerImpl(journalProperties(), new SimpleMeterRegistry()).close();
+
+        assertEquals("once", Files.readString(file));
+    }
+
+    @Test
+    void journalReplay_ignoresAppendsToDeletedPaths() throws IOException {
+        Path file = tempDir.resolve("dir/log.txt");
+        Files.createDirectories(file.getParent());
+        Files.createFile(file);
+        FileIOManagerImpl journaled = new FileIOManagerImpl(journalProperties(), new SimpleMeterRegistry());
+        journaled.writeString(file, "old");
+        journaled.deleteRecursively(tempDir.resolve("dir"));
+        Files.createDirectories(file.getParent());
+        Files.createFile(file);
+
+        new FileIOManagerImpl(journalProperties(), new SimpleMeterRegistry()).close();
+
+        assertEquals("", Files.readString(file));
+    }
+
+    @Test
+    void journalCheckpoint_dropsSegmentsOnceFilesAreForced() throws IOException {
+        Path journalDir = tempDir.resolve(".journal");
+        Path file = tempDir.resolve("log.txt");
+        Files.createFile(file);
+        for (FileIOProperties.Journal.Durability durability : FileIOProperties.Journal.Durability.values()) {
+            FileIOProperties properties = journalProperties();
+            properties.getJournal().setDurability(durability);
+            FileIOManagerImpl journaled = new FileIOManagerImpl(properties, new SimpleMeterRegistry());
+            journaled.writeString(file, durability.name());
+            assertTrue(journalBytes(journalDir) > 0);
+
+            journaled.close();
+            assertEquals(0, journalBytes(journalDir));
+        }
+        assertEquals("NONEPERIODICGROUP_COMMIT", Files.readString(file));
+    }
+
+    @Test
+    void journalDir_isInternal() throws IOException {
+        FileIOManagerImpl journaled = new FileIOManagerImpl(journalProperties(), new SimpleMeterRegistry());
+
+        assertTrue(journaled.isInternal(tempDir.resolve(".journal/segment-00000000000000000000.log")));
+        assertFalse(journaled.isInternal(tempDir.resolve("log.txt")));
+        journaled.close();
+    }
+
+    private FileIOProperties journalProperties() {
+        FileIOProperties properties = new FileIOProperties();
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setDir(tempDir.resolve(".journal"));
+        return properties;
+    }
+
+    private static long journalBytes(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private FileIOProperties casProperties() {
+        FileIOProperties properties = new FileIOProperties();
+        properties.getCas().setEnabled(true);
+        properties.getCas().setDir(tempDir.resolve(".cas"));
+        properties.getCas().setMinSize(DataSize.ofBytes(0));
+        return properties;
+    }
+
+    private static long blobCount(Path store) throws IOException {
+        try (Stream<Path> files = Files.walk(store)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
 }
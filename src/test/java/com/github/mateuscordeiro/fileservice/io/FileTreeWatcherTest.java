@@ -0,0 +1,108 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.io.FileTreeWatcher.Change;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileTreeWatcherTest {
+    @TempDir
+    Path tempDir;
+    private FileTreeWatcher watcher;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    void subscribe_reportsFileChangesWithoutSubtreeAndDirectoryDeletesWithSubtree() throws Exception {
+        Path dir = Files.createDirectories(tempDir.resolve("dir"));
+        Path file = Files.writeString(tempDir.resolve("file.txt"), "abc");
+        BlockingQueue<Change> changes = start(new FileIOProperties());
+
+        Files.writeString(file, "abcdef");
+        Change modified = next(changes, file);
+        assertFalse(modified.directory());
+        assertFalse(modified.subtree());
+
+        Files.delete(dir);
+        Change deleted = next(changes, dir);
+        assertEquals(Change.Kind.DELETE, deleted.kind());
+        assertTrue(deleted.subtree());
+    }
+
+    @Test
+    void subscribe_skipsTheJournalDirectory() throws Exception {
+        Path journalDir = Files.createDirectories(tempDir.resolve(".journal"));
+        FileIOProperties properties = new FileIOProperties();
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setDir(journalDir);
+        BlockingQueue<Change> changes = start(properties);
+
+        Files.writeString(journalDir.resolve("segment.log"), "abc");
+        Path file = Files.writeString(tempDir.resolve("file.txt"), "abc");
+
+        List<Change> seen = new ArrayList<>();
+        next(changes, file, seen);
+        for (Change change : seen) {
+            assertFalse(change.path().startsWith(journalDir), change.path().toString());
+        }
+    }
+
+    @Test
+    void subscribe_degradesInsteadOfFailingPastMaxDirectories() throws Exception {
+        Files.createDirectories(tempDir.resolve("a/b"));
+        FileIOProperties properties = new FileIOProperties();
+        properties.getWatch().setMaxDirectories(2);
+
+        start(properties);
+
+        assertTrue(watcher.isDegraded());
+    }
+
+    private BlockingQueue<Change> start(FileIOProperties properties) throws IOException {
+        BlockingQueue<Change> changes = new LinkedBlockingQueue<>();
+        watcher = new FileTreeWatcher(new RootPathProperties(tempDir), properties);
+        watcher.subscribe(changes::add);
+        return changes;
+    }
+
+    private static Change next(BlockingQueue<Change> changes, Path path) throws InterruptedException {
+        return next(changes, path, new ArrayList<>());
+    }
+
+    // Waits for a change of path, adding it and every change before it to seen
+    private static Change next(BlockingQueue<Change> changes, Path path, List<Change> seen)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Change change = changes.poll(100, TimeUnit.MILLISECONDS);
+            if (change != null) {
+                seen.add(change);
+                if (change.path().equals(path.toAbsolutePath().normalize())) {
+                    return change;
+                }
+            }
+        }
+        return fail("no change reported for " + path);
+    }
+}
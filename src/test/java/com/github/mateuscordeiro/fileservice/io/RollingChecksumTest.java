@@ -0,0 +1,28 @@
+package com.github.mateuscordeiro.fileservice.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class RollingChecksumTest {
+    @Test
+    void roll_matchesChecksumComputedFromScratch() {
+        byte[] bytes = "the quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+        int window = 8;
+        RollingChecksum rolling = RollingChecksum.of(bytes, 0, window);
+
+        for (int i = 1; i + window <= bytes.length; i++) {
+            rolling.roll(bytes[i - 1], bytes[i + window - 1]);
+            assertEquals(RollingChecksum.of(bytes, i, window).value(), rolling.value());
+        }
+    }
+
+    @Test
+    void of_treatsBytesAsUnsigned() {
+        byte[] bytes = {(byte) 0xFF, (byte) 0x80};
+
+        // a = 255 + 128, b = 2 * 255 + 1 * 128
+        assertEquals(383 | 638 << 16, RollingChecksum.of(bytes, 0, 2).value());
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+import com.github.mateuscordeiro.fileservice.config.FollowProperties;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.io.FileTreeWatcher;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AppendNotifierTest {
+    @TempDir
+    Path tempDir;
+    private FileTreeWatcher watcher;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    void await_wakesOnSignalLongBeforePollInterval() throws Exception {
+        AppendNotifier notifier = newNotifier(false, Duration.ofMinutes(1), 10);
+        Path file = tempDir.resolve("log.txt");
+        AtomicBoolean ready = new AtomicBoolean();
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> await(notifier, file, ready));
+        Thread.sleep(100);
+        assertFalse(waiter.isDone());
+        ready.set(true);
+        notifier.signal(file);
+
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void awaitAsync_completesOnSignalWithoutAThread() throws Exception {
+        AppendNotifier notifier = newNotifier(false, Duration.ofMinutes(1), 10);
+        Path file = tempDir.resolve("log.txt");
+        AtomicBoolean ready = new AtomicBoolean();
+
+        CompletableFuture<Boolean> waiter = notifier.awaitAsync(file, Duration.ofSeconds(30), ready::get,
+                                                                Runnable::run);
+        assertFalse(waiter.isDone());
+        ready.set(true);
+        notifier.signal(file);
+
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void awaitAsync_timesOutWhenNothingChanges() throws Exception {
+        AppendNotifier notifier = newNotifier(false, Duration.ofMillis(10), 10);
+
+        CompletableFuture<Boolean> waiter = notifier.awaitAsync(tempDir.resolve("log.txt"), Duration.ofMillis(50),
+                                                                () -> false, Runnable::run);
+
+        assertFalse(waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void await_timesOutWhenNothingChanges() throws Exception {
+        AppendNotifier notifier = newNotifier(false, Duration.ofMillis(10), 10);
+
+        assertFalse(notifier.await(tempDir.resolve("log.txt"), Duration.ofMillis(50), () -> false));
+    }
+
+    @Test
+    void await_overMaxWaiters_checksOnceWithoutWaiting() throws Exception {
+        AppendNotifier notifier = newNotifier(false, Duration.ofMinutes(1), 0);
+        long start = System.nanoTime();
+
+        assertFalse(notifier.await(tempDir.resolve("log.txt"), Duration.ofSeconds(10), () -> false));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void await_withWatch_wakesOnExternalWrite() throws Exception {
+        AppendNotifier notifier = newNotifier(true, Duration.ofMinutes(1), 10);
+        Path file = tempDir.resolve("log.txt");
+        Files.writeString(file, "a");
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(
+                () -> await(notifier, file, () -> size(file) > 1));
+        Thread.sleep(100);
+        Files.writeString(file, "ab");
+
+        assertTrue(waiter.get(20, TimeUnit.SECONDS));
+    }
+
+    private AppendNotifier newNotifier(boolean watch, Duration pollInterval, int maxWaiters) throws IOException {
+        FollowProperties properties = new FollowProperties();
+        properties.setWatch(watch);
+        properties.setPollInterval(pollInterval);
+        properties.setMaxWaiters(maxWaiters);
+        properties.setMaxWait(Duration.ofSeconds(30));
+        watcher = new FileTreeWatcher(new RootPathProperties(tempDir), new FileIOProperties());
+        AppendNotifier notifier = new AppendNotifier(properties, watcher);
+        return notifier;
+    }
+
+    private static boolean await(AppendNotifier notifier, Path file, AtomicBoolean ready) {
+        return await(notifier, file, ready::get);
+    }
+
+    private static boolean await(AppendNotifier notifier, Path file, BooleanSupplier ready) {
+        try {
+            return notifier.await(file, Duration.ofSeconds(30), ready);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
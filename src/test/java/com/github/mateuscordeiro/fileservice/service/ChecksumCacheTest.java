@@ -0,0 +1,127 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.util.unit.DataSize;
+import com.github.mateuscordeiro.fileservice.config.ChecksumProperties;
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.io.BlockDigest;
+import com.github.mateuscordeiro.fileservice.io.FileIOManagerImpl;
+import com.github.mateuscordeiro.fileservice.service.ChecksumCache.FileChecksum;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChecksumCacheTest {
+    @TempDir
+    Path tempDir;
+    private Path root;
+    private Path file;
+    private FileIOManagerImpl fileIOManager;
+    private ChecksumCache cache;
+    private final List<Integer> hashedFrom = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createDirectories(tempDir.resolve("root"));
+        file = root.resolve("data.txt");
+        Files.writeString(file, "abcdefghij");
+
+        fileIOManager = new FileIOManagerImpl(new FileIOProperties(), new SimpleMeterRegistry()) {
+            @Override
+            public List<BlockDigest> digestBlocks(Path path, long size, long blockSize, int firstBlock)
+                    throws IOException {
+                hashedFrom.add(firstBlock);
+                return super.digestBlocks(path, size, blockSize, firstBlock);
+            }
+        };
+        ChecksumProperties properties = new ChecksumProperties(DataSize.ofBytes(4), tempDir.resolve("sidecars"), 10000);
+        cache = new ChecksumCache(properties, new RootPathProperties(root), fileIOManager);
+    }
+
+    @Test
+    void get_whenFileIsUnchanged_reusesSidecar() throws IOException {
+        FileChecksum first = cache.get(file);
+        FileChecksum second = cache.get(file);
+
+        assertEquals(List.of(0), hashedFrom);
+        assertEquals(3, second.blocks().size());
+        assertArrayEquals(first.digest(), second.digest());
+        assertEquals(10, second.size());
+    }
+
+    @Test
+    void get_afterServiceAppend_rehashesOnlyFromLastIncompleteBlock() throws IOException {
+        cache.get(file);
+        Files.writeString(file, "klmno", StandardOpenOption.APPEND);
+        cache.appended(file);
+
+        FileChecksum incremental = cache.get(file);
+
+        assertEquals(List.of(0, 2), hashedFrom);
+        assertEquals(4, incremental.blocks().size());
+        assertArrayEquals(freshChecksum().digest(), incremental.digest());
+    }
+
+    @Test
+    void get_afterOutsideChangeOrInvalidate_rehashesWholeFile() throws IOException {
+        cache.get(file);
+        Files.writeString(file, "ABCDEFGHIJ");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+
+        FileChecksum changed = cache.get(file);
+        cache.appended(file);
+        cache.invalidate(file);
+        cache.get(file);
+
+        assertEquals(List.of(0, 0, 0), hashedFrom);
+        assertArrayEquals(freshChecksum().digest(), changed.digest());
+    }
+
+    @Test
+    void get_afterTrackedFileWasEvicted_rehashesWholeFile() throws IOException {
+        ChecksumProperties properties = new ChecksumProperties(DataSize.ofBytes(4), tempDir.resolve("sidecars"), 1);
+        cache = new ChecksumCache(properties, new RootPathProperties(root), fileIOManager);
+        Path other = Files.writeString(root.resolve("other.txt"), "abcdefghij");
+        cache.get(file);
+        cache.get(other);
+
+        Files.writeString(file, "klmno", StandardOpenOption.APPEND);
+        cache.appended(file);
+        FileChecksum rehashed = cache.get(file);
+
+        assertEquals(List.of(0, 0, 0), hashedFrom);
+        assertArrayEquals(freshChecksum().digest(), rehashed.digest());
+    }
+
+    @Test
+    void invalidate_whenDirectoryIsNamedLikeASidecar_keepsBothApart() throws IOException {
+        Path nested = Files.writeString(Files.createDirectories(root.resolve("data.txt.sum")).resolve("x"), "abcd");
+        cache.get(file);
+        cache.get(nested);
+
+        cache.invalidate(root.resolve("data.txt.sum"));
+        cache.get(file);
+        cache.invalidate(file);
+        cache.get(nested);
+
+        assertEquals(List.of(0, 0), hashedFrom);
+    }
+
+    private FileChecksum freshChecksum() throws IOException {
+        ChecksumProperties properties = new ChecksumProperties(DataSize.ofBytes(4), tempDir.resolve("fresh"), 10000);
+        return new ChecksumCache(properties, new RootPathProperties(root),
+                                 new FileIOManagerImpl(new FileIOProperties(), new SimpleMeterRegistry())).get(file);
+    }
+}
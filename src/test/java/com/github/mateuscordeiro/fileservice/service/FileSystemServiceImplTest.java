@@ -2,25 +2,59 @@ package com.github.mateuscordeiro.fileservice.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import org.springframework.util.unit.DataSize;
+import com.github.mateuscordeiro.fileservice.concurrency.AppendCoalescer;
 import com.github.mateuscordeiro.fileservice.concurrency.FileConcurrencyManager;
+import com.github.mateuscordeiro.fileservice.config.CacheProperties;
+import com.github.mateuscordeiro.fileservice.config.ChecksumProperties;
+import com.github.mateuscordeiro.fileservice.config.ConcurrencyProperties;
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+import com.github.mateuscordeiro.fileservice.config.FollowProperties;
+import com.github.mateuscordeiro.fileservice.config.IndexProperties;
 import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.exception.DeleteFailedException;
 import com.github.mateuscordeiro.fileservice.exception.FileAlreadyExistsException;
 import com.github.mateuscordeiro.fileservice.exception.FileNotFoundException;
 import com.github.mateuscordeiro.fileservice.exception.InvalidPathException;
+import com.github.mateuscordeiro.fileservice.exception.VersionConflictException;
+import com.github.mateuscordeiro.fileservice.io.ByteRange;
+import com.github.mateuscordeiro.fileservice.io.DeltaOp;
 import com.github.mateuscordeiro.fileservice.io.FileIOManagerImpl;
+import com.github.mateuscordeiro.fileservice.io.FileTreeWatcher;
+import com.github.mateuscordeiro.fileservice.io.OperationProgress;
+import com.github.mateuscordeiro.fileservice.io.PartialDeleteException;
 import com.github.mateuscordeiro.fileservice.rpc.dto.FileInfo;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.DeltaResult;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.FollowResponse;
+import com.github.mateuscordeiro.fileservice.rpc.dto.response.SignatureResponse;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -31,11 +65,12 @@ public class FileSystemServiceImplTest {
     private FileSystemServiceImpl service;
 
     @BeforeEach
-    void setup() {
+    void setup() throws IOException {
         RootPathProperties props = new RootPathProperties();
         props.setRoot(tempDir);
 
-        service = new FileSystemServiceImpl(props, new FileIOManagerImpl(), new FileConcurrencyManager());
+        FileIOManagerImpl fileIOManager = new FileIOManagerImpl(new FileIOProperties(), new SimpleMeterRegistry());
+        service = newService(props, fileIOManager, new CacheProperties(), new IndexProperties());
     }
 
     @Test
@@ -149,6 +184,25 @@ public class FileSystemServiceImplTest {
         assertTrue(children.stream().anyMatch(f -> f.getName().equals("file.txt")));
     }
 
+    @Test
+    void listChildren_whenNestedDirectory_returnsRelativePathsSizesAndTypes() throws IOException {
+        Path dir = tempDir.resolve("a/b");
+        Files.createDirectories(dir.resolve("sub"));
+        Files.writeString(dir.resolve("c.txt"), "12345");
+
+        List<FileInfo> children = service.listChildren("a/b");
+
+        FileInfo file = children.stream().filter(f -> f.getName().equals("c.txt")).findFirst().orElseThrow();
+        assertEquals("a/b/c.txt", file.getPath());
+        assertEquals(5, file.getSize());
+        assertFalse(file.isDirectory());
+
+        FileInfo sub = children.stream().filter(f -> f.getName().equals("sub")).findFirst().orElseThrow();
+        assertEquals("a/b/sub", sub.getPath());
+        assertEquals(0, sub.getSize());
+        assertTrue(sub.isDirectory());
+    }
+
     @Test
     void create_whenPathIsFile_createsFile() {
         String path = "file.txt";
@@ -238,6 +292,50 @@ public class FileSystemServiceImplTest {
         assertThrows(InvalidPathException.class, () -> service.delete(""));
     }
 
+    @Test
+    void delete_whenSomeEntriesFail_reportsEachFailedPathRelativeToRoot() throws IOException {
+        Files.createDirectories(tempDir.resolve("dir/locked"));
+        RootPathProperties props = new RootPathProperties();
+        props.setRoot(tempDir);
+        FileIOManagerImpl failingIOManager = new FileIOManagerImpl(new FileIOProperties(), new SimpleMeterRegistry()) {
+            @Override
+            public void deleteRecursively(Path path, OperationProgress progress) throws IOException {
+                Map<Path, IOException> failures = new TreeMap<>();
+                failures.put(path.resolve("locked"), new AccessDeniedException(path.resolve("locked").toString()));
+                throw new PartialDeleteException(path, failures);
+            }
+        };
+        FileSystemServiceImpl failingService = newService(props, failingIOManager, new CacheProperties(),
+                                                          new IndexProperties());
+
+        DeleteFailedException ex = assertThrows(DeleteFailedException.class, () -> failingService.delete("dir"));
+
+        assertEquals(1, ex.getFailures().size());
+        assertTrue(ex.getFailures().containsKey(Path.of("dir", "locked").toString()));
+    }
+
+    @Test
+    void delete_whenFailuresWereTruncated_reportsTheTotalCount() throws IOException {
+        Files.createDirectories(tempDir.resolve("dir/locked"));
+        RootPathProperties props = new RootPathProperties();
+        props.setRoot(tempDir);
+        FileIOManagerImpl failingIOManager = new FileIOManagerImpl(new FileIOProperties(), new SimpleMeterRegistry()) {
+            @Override
+            public void deleteRecursively(Path path, OperationProgress progress) throws IOException {
+                Map<Path, IOException> failures = new TreeMap<>();
+                failures.put(path.resolve("locked"), new AccessDeniedException(path.resolve("locked").toString()));
+                throw new PartialDeleteException(path, failures, 250);
+            }
+        };
+        FileSystemServiceImpl failingService = newService(props, failingIOManager, new CacheProperties(),
+                                                          new IndexProperties());
+
+        DeleteFailedException ex = assertThrows(DeleteFailedException.class, () -> failingService.delete("dir"));
+
+        assertEquals(1, ex.getFailures().size());
+        assertEquals(250, ex.getFailureCount());
+    }
+
     @Test
     void move_whenFileExists_movesToDestination() throws IOException {
         Path src = tempDir.resolve("a.txt");
@@ -459,6 +557,34 @@ public class FileSystemServiceImplTest {
         assertThrows(InvalidPathException.class, () -> service.read("", 0, 10));
     }
 
+    @Test
+    void transferTo_whenValidFile_writesRangeToChannel() throws IOException {
+        Files.writeString(tempDir.resolve("transfer.txt"), "abcdef");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long transferred = service.transferTo("transfer.txt", size -> new ByteRange(1, size - 3),
+                                              Channels.newChannel(out));
+
+        assertEquals(3, transferred);
+        assertEquals("bcd", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void transferTo_whenRangeIsNull_sendsNothing() throws IOException {
+        Files.writeString(tempDir.resolve("transfer.txt"), "abcdef");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, service.transferTo("transfer.txt", size -> null, Channels.newChannel(out)));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void transferTo_whenFileDoesNotExist_throwsFileNotFoundException() {
+        assertThrows(FileNotFoundException.class,
+                     () -> service.transferTo("missing.txt", size -> new ByteRange(0, size),
+                                              Channels.newChannel(new ByteArrayOutputStream())));
+    }
+
     @Test
     void append_whenFileExists_appendsData() throws IOException {
         Path file = tempDir.resolve("append.txt");
@@ -552,4 +678,213 @@ public class FileSystemServiceImplTest {
         assertEquals(dataA.repeat(threadCount), resultA);
         assertEquals(dataB.repeat(threadCount), resultB);
     }
+
+    @Test
+    void getFileInfoAndListChildren_withMetadataCache_reflectServiceMutations() throws IOException {
+        RootPathProperties props = new RootPathProperties();
+        props.setRoot(tempDir);
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getMetadata().setEnabled(true);
+        cacheProperties.getMetadata().setWatch(false);
+        FileIOManagerImpl fileIOManager = new FileIOManagerImpl(new FileIOProperties(), new SimpleMeterRegistry());
+        FileSystemServiceImpl cachedService = newService(props, fileIOManager, cacheProperties, new IndexProperties());
+        Files.createDirectories(tempDir.resolve("dir"));
+        Files.writeString(tempDir.resolve("dir/file.txt"), "abc");
+
+        assertEquals(3, cachedService.getFileInfo("dir/file.txt").getSize());
+        assertEquals(1, cachedService.listChildren("dir").size());
+
+        cachedService.append("dir/file.txt", "def");
+        cachedService.create("dir/other.txt", false);
+
+        assertEquals(6, cachedService.getFileInfo("dir/file.txt").getSize());
+        assertEquals(2, cachedService.listChildren("dir").size());
+
+        cachedService.delete("dir");
+        assertThrows(FileNotFoundException.class, () -> cachedService.getFileInfo("dir/file.txt"));
+    }
+
+    @Test
+    void metadataQueries_withNamespaceIndex_followServiceMutations() throws IOException {
+        RootPathProperties props = new RootPathProperties();
+        props.setRoot(tempDir);
+        Files.createDirectories(tempDir.resolve("dir"));
+        Files.writeString(tempDir.resolve("dir/file.txt"), "abc");
+        IndexProperties indexProperties = new IndexProperties();
+        indexProperties.setEnabled(true);
+        indexProperties.setWatch(false);
+        FileIOManagerImpl fileIOManager = new FileIOManagerImpl(new FileIOProperties(), new SimpleMeterRegistry());
+        FileSystemServiceImpl indexedService = newService(props, fileIOManager, new CacheProperties(),
+                                                          indexProperties);
+
+        assertEquals(3, indexedService.getFileInfo("dir/file.txt").getSize());
+
+        indexedService.append("dir/file.txt", "de");
+        indexedService.create("dir/nested/new.txt", false);
+        indexedService.copy("dir", "copy");
+        indexedService.move("copy/file.txt", "moved.txt");
+
+        assertEquals(5, indexedService.getFileInfo("dir/file.txt").getSize());
+        assertEquals(2, indexedService.listChildren("dir").size());
+        assertTrue(indexedService.getFileInfo("dir/nested").isDirectory());
+        assertEquals(5, indexedService.getFileInfo("moved.txt").getSize());
+        assertThrows(FileNotFoundException.class, () -> indexedService.getFileInfo("copy/file.txt"));
+        assertTrue(indexedService.verifyIndex(false).getMismatches().isEmpty());
+
+        // A change behind the service's back is only picked up by verify with repair
+        Files.writeString(tempDir.resolve("outside.txt"), "x");
+        assertThrows(FileNotFoundException.class, () -> indexedService.getFileInfo("outside.txt"));
+        assertEquals(List.of("outside.txt"), indexedService.verifyIndex(true).getMismatches());
+        assertEquals(1, indexedService.getFileInfo("outside.txt").getSize());
+    }
+
+    @Test
+    void walk_appliesGlobsDepthAndLimit() throws IOException {
+        Files.createDirectories(tempDir.resolve("tree/sub/deeper"));
+        Files.createDirectories(tempDir.resolve("tree/build"));
+        Files.writeString(tempDir.resolve("tree/a.txt"), "a");
+        Files.writeString(tempDir.resolve("tree/sub/b.txt"), "bb");
+        Files.writeString(tempDir.resolve("tree/sub/deeper/c.txt"), "c");
+        Files.writeString(tempDir.resolve("tree/sub/d.log"), "d");
+        Files.writeString(tempDir.resolve("tree/build/e.txt"), "e");
+
+        List<FileInfo> matched = new ArrayList<>();
+        boolean truncated = service.walk("tree", Integer.MAX_VALUE, List.of("**.txt"), List.of("build"),
+                                         Long.MAX_VALUE, matched::add);
+        assertFalse(truncated);
+        assertEquals(Set.of("tree/a.txt", "tree/sub/b.txt", "tree/sub/deeper/c.txt"),
+                     matched.stream().map(FileInfo::getPath).collect(Collectors.toSet()));
+        assertEquals(2, matched.stream().filter(info -> info.getName().equals("b.txt")).findFirst()
+                               .orElseThrow().getSize());
+
+        List<FileInfo> shallow = new ArrayList<>();
+        service.walk("tree", 2, List.of("**.txt"), null, Long.MAX_VALUE, shallow::add);
+        assertEquals(Set.of("tree/a.txt", "tree/sub/b.txt", "tree/build/e.txt"),
+                     shallow.stream().map(FileInfo::getPath).collect(Collectors.toSet()));
+
+        List<FileInfo> limited = new ArrayList<>();
+        assertTrue(service.walk("tree", Integer.MAX_VALUE, null, null, 2, limited::add));
+        assertEquals(2, limited.size());
+    }
+
+    @Test
+    void walk_whenPathIsMissingOrAFile_throws() throws IOException {
+        Files.writeString(tempDir.resolve("file.txt"), "x");
+        assertThrows(FileNotFoundException.class,
+                     () -> service.walk("missing", 1, null, null, Long.MAX_VALUE, info -> {}));
+        assertThrows(InvalidPathException.class,
+                     () -> service.walk("file.txt", 1, null, null, Long.MAX_VALUE, info -> {}));
+    }
+
+    @Test
+    void copy_withContentStore_hidesStoreAndKeepsCopiesIndependent() throws IOException {
+        RootPathProperties props = new RootPathProperties();
+        props.setRoot(tempDir);
+        Files.createDirectories(tempDir.resolve("dir"));
+        Files.writeString(tempDir.resolve("dir/file.txt"), "abc");
+        FileIOProperties ioProperties = new FileIOProperties();
+        ioProperties.getCas().setEnabled(true);
+        ioProperties.getCas().setDir(tempDir.resolve(".cas"));
+        ioProperties.getCas().setMinSize(DataSize.ofBytes(0));
+        FileIOManagerImpl fileIOManager = new FileIOManagerImpl(ioProperties, new SimpleMeterRegistry());
+        FileSystemServiceImpl casService = newService(props, fileIOManager, new CacheProperties(),
+                                                      new IndexProperties());
+
+        casService.copy("dir", "first");
+        casService.copy("dir/file.txt", "second.txt");
+        casService.append("second.txt", "def");
+
+        assertEquals(Set.of("dir", "first", "second.txt"),
+                     casService.listChildren("").stream().map(FileInfo::getName).collect(Collectors.toSet()));
+        assertEquals("abc", casService.read("first/file.txt", 0, 10));
+        assertEquals("abcdef", casService.read("second.txt", 0, 10));
+        assertThrows(InvalidPathException.class, () -> casService.listChildren(".cas"));
+    }
+
+    @Test
+    void readRanges_servesOffsetsBeyondTwoGigabytes() throws IOException {
+        long offset = 3L * 1024 * 1024 * 1024;
+        try (FileChannel channel = FileChannel.open(tempDir.resolve("sparse.bin"), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap("head".getBytes(StandardCharsets.UTF_8)), 0);
+            channel.write(ByteBuffer.wrap("tail".getBytes(StandardCharsets.UTF_8)), offset);
+        }
+
+        List<byte[]> ranges = service.readRanges("sparse.bin", List.of(new ByteRange(offset, 10),
+                                                                       new ByteRange(0, 4)));
+
+        assertEquals("tail", new String(ranges.get(0), StandardCharsets.UTF_8));
+        assertEquals("head", new String(ranges.get(1), StandardCharsets.UTF_8));
+        assertEquals("ta", service.read("sparse.bin", offset, 2));
+    }
+
+    @Test
+    void follow_returnsDataAppendedWhileWaiting() throws Exception {
+        Files.writeString(tempDir.resolve("log.txt"), "one\n");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<FollowResponse> follower = executor.submit(
+                    () -> service.follow("log.txt", 4, 100, Duration.ofSeconds(10)));
+            Thread.sleep(100);
+            assertFalse(follower.isDone());
+
+            service.append("log.txt", "two\n");
+
+            FollowResponse response = follower.get(5, TimeUnit.SECONDS);
+            assertEquals("two\n", response.getData());
+            assertEquals(8, response.getNextOffset());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void follow_keepsSplitCharacterForNextCallAndReportsTimeout() throws IOException {
+        Files.write(tempDir.resolve("log.txt"), "a\u00e9".getBytes(StandardCharsets.UTF_8));
+
+        FollowResponse split = service.follow("log.txt", 0, 2, Duration.ZERO);
+        assertEquals("a", split.getData());
+        assertEquals(1, split.getNextOffset());
+
+        FollowResponse rest = service.follow("log.txt", 1, 10, Duration.ZERO);
+        assertEquals("\u00e9", rest.getData());
+
+        FollowResponse timedOut = service.follow("log.txt", 3, 10, Duration.ofMillis(20));
+        assertEquals("", timedOut.getData());
+        assertEquals(3, timedOut.getNextOffset());
+    }
+
+    @Test
+    void applyDelta_replacesFileAndInvalidatesCachedChecksum() throws IOException {
+        Files.writeString(tempDir.resolve("file.txt"), "abcdefgh");
+        String digestBefore = service.checksum("file.txt").getDigest();
+        SignatureResponse signatures = service.signatures("file.txt", 4);
+        assertEquals(2, signatures.getBlocks().size());
+
+        DeltaResult result = service.applyDelta("file.txt", signatures.getVersion(), 4,
+                                                List.of(DeltaOp.blocks(1, 1), DeltaOp.blocks(0, 1)));
+
+        assertEquals(8, result.getSize());
+        assertEquals("efghabcd", Files.readString(tempDir.resolve("file.txt")));
+        assertNotEquals(digestBefore, service.checksum("file.txt").getDigest());
+        assertThrows(VersionConflictException.class,
+                     () -> service.applyDelta("file.txt", signatures.getVersion(), 4, List.of()));
+    }
+
+    private static FileSystemServiceImpl newService(RootPathProperties props, FileIOManagerImpl fileIOManager,
+                                                    CacheProperties cacheProperties,
+                                                    IndexProperties indexProperties) throws IOException {
+        FileConcurrencyManager concurrencyManager = new FileConcurrencyManager(new ConcurrencyProperties(),
+                                                                               new SimpleMeterRegistry());
+        FileTreeWatcher watcher = new FileTreeWatcher(props, new FileIOProperties());
+        NamespaceIndex namespaceIndex = new NamespaceIndex(indexProperties, props, watcher, fileIOManager);
+        namespaceIndex.start();
+        ChecksumProperties checksumProperties = new ChecksumProperties();
+        checksumProperties.setSidecarDir(Files.createTempDirectory("checksums"));
+        return new FileSystemServiceImpl(props, fileIOManager, concurrencyManager,
+                                         new AppendCoalescer(fileIOManager, concurrencyManager),
+                                         new MetadataCache(cacheProperties, watcher), namespaceIndex,
+                                         new ChecksumCache(checksumProperties, props, fileIOManager),
+                                         new AppendNotifier(new FollowProperties(), watcher));
+    }
 }
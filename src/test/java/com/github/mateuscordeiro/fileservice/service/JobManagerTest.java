@@ -0,0 +1,127 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.github.mateuscordeiro.fileservice.config.JobProperties;
+import com.github.mateuscordeiro.fileservice.exception.JobNotFoundException;
+import com.github.mateuscordeiro.fileservice.exception.JobRejectedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class JobManagerTest {
+    private JobManager jobManager;
+
+    @AfterEach
+    void tearDown() {
+        if (jobManager != null) {
+            jobManager.shutdown();
+        }
+    }
+
+    @Test
+    void submit_runsJobInBackgroundAndRecordsOutcome() throws Exception {
+        jobManager = new JobManager(new JobProperties(), new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+
+        Job succeeding = jobManager.submit("copy", progress -> await(release));
+        Job failing = jobManager.submit("delete", progress -> {
+            throw new IllegalStateException("boom");
+        });
+        assertSame(succeeding, jobManager.get(succeeding.getId()));
+
+        release.countDown();
+        awaitFinished(succeeding);
+        awaitFinished(failing);
+
+        assertEquals(Job.State.SUCCEEDED, succeeding.getState());
+        assertEquals(Job.State.FAILED, failing.getState());
+        assertEquals("boom", failing.getFailure().getMessage());
+    }
+
+    @Test
+    void submit_whenJobThrowsError_recordsFailure() throws Exception {
+        jobManager = new JobManager(new JobProperties(), new SimpleMeterRegistry());
+
+        Job job = jobManager.submit("delete", progress -> {
+            throw new StackOverflowError("deep");
+        });
+        awaitFinished(job);
+
+        assertEquals(Job.State.FAILED, job.getState());
+        assertEquals("deep", job.getFailure().getMessage());
+    }
+
+    @Test
+    void cancel_stopsRunningJobAndSkipsQueuedOne() throws Exception {
+        jobManager = new JobManager(new JobProperties(1, 10, Duration.ofMinutes(1)), new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+
+        Job running = jobManager.submit("copy", progress -> {
+            started.countDown();
+            while (!progress.isCancelled()) {
+                Thread.onSpinWait();
+            }
+            throw new CancellationException();
+        });
+        Job queued = jobManager.submit("copy", progress -> {
+            throw new AssertionError("cancelled job must not run");
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        jobManager.cancel(queued.getId());
+        assertEquals(Job.State.CANCELLED, queued.getState());
+        jobManager.cancel(running.getId());
+        awaitFinished(running);
+
+        assertEquals(Job.State.CANCELLED, running.getState());
+    }
+
+    @Test
+    void submit_whenQueueIsFull_rejectsJob() throws Exception {
+        jobManager = new JobManager(new JobProperties(1, 1, Duration.ofMinutes(1)), new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+
+        jobManager.submit("copy", progress -> await(release));
+        jobManager.submit("copy", progress -> await(release));
+
+        assertThrows(JobRejectedException.class, () -> jobManager.submit("copy", progress -> {}));
+        release.countDown();
+    }
+
+    @Test
+    void get_whenJobIsUnknownOrExpired_throwsJobNotFoundException() throws Exception {
+        jobManager = new JobManager(new JobProperties(1, 10, Duration.ZERO), new SimpleMeterRegistry());
+        Job job = jobManager.submit("delete", progress -> {});
+        awaitFinished(job);
+
+        Thread.sleep(5);
+        jobManager.submit("delete", progress -> {});
+
+        assertThrows(JobNotFoundException.class, () -> jobManager.get(job.getId()));
+        assertThrows(JobNotFoundException.class, () -> jobManager.get("missing"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitFinished(Job job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.getState().isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
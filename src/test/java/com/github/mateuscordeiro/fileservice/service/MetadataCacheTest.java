@@ -0,0 +1,138 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.mateuscordeiro.fileservice.config.CacheProperties;
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.io.FileTreeWatcher;
+import com.github.mateuscordeiro.fileservice.rpc.dto.FileInfo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MetadataCacheTest {
+    @TempDir
+    Path tempDir;
+    private FileTreeWatcher watcher;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    void getFileInfo_whenDisabled_alwaysLoads() {
+        MetadataCache cache = newCache(false, Duration.ofMinutes(1), false);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getFileInfo(tempDir.resolve("a"), () -> info(loads.incrementAndGet()));
+        cache.getFileInfo(tempDir.resolve("a"), () -> info(loads.incrementAndGet()));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getFileInfo_whenCached_loadsOnceUntilInvalidated() {
+        MetadataCache cache = newCache(true, Duration.ofMinutes(1), false);
+        Path file = tempDir.resolve("a");
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getFileInfo(file, () -> info(loads.incrementAndGet()));
+        FileInfo cached = cache.getFileInfo(file, () -> info(loads.incrementAndGet()));
+        assertEquals(1, cached.getSize());
+
+        cache.invalidate(file, false);
+        assertEquals(2, cache.getFileInfo(file, () -> info(loads.incrementAndGet())).getSize());
+    }
+
+    @Test
+    void invalidate_dropsAncestorListingsAndSubtreeEntries() {
+        MetadataCache cache = newCache(true, Duration.ofMinutes(1), false);
+        Path dir = tempDir.resolve("dir");
+        Path nested = dir.resolve("sub/file.txt");
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getChildren(tempDir, () -> List.of(info(loads.incrementAndGet())));
+        cache.getFileInfo(nested, () -> info(loads.incrementAndGet()));
+
+        cache.invalidate(dir, true);
+
+        assertEquals(3, cache.getChildren(tempDir, () -> List.of(info(loads.incrementAndGet()))).get(0).getSize());
+        assertEquals(4, cache.getFileInfo(nested, () -> info(loads.incrementAndGet())).getSize());
+    }
+
+    @Test
+    void getFileInfo_storesLoadsRacingOnlyUnrelatedInvalidations() {
+        MetadataCache cache = newCache(true, Duration.ofMinutes(1), false);
+        Path file = tempDir.resolve("a");
+        Path other = tempDir.resolve("b");
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getFileInfo(file, () -> {
+            cache.invalidate(other, false);
+            return info(loads.incrementAndGet());
+        });
+        cache.getFileInfo(file, () -> info(loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+
+        cache.getFileInfo(other, () -> {
+            cache.invalidate(other, false);
+            return info(loads.incrementAndGet());
+        });
+        cache.getFileInfo(other, () -> info(loads.incrementAndGet()));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void getFileInfo_whenTtlElapsed_reloads() {
+        MetadataCache cache = newCache(true, Duration.ZERO, false);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getFileInfo(tempDir.resolve("a"), () -> info(loads.incrementAndGet()));
+        cache.getFileInfo(tempDir.resolve("a"), () -> info(loads.incrementAndGet()));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getFileInfo_whenChangedOutsideService_isInvalidatedByWatcher() throws Exception {
+        MetadataCache cache = newCache(true, Duration.ofMinutes(1), true);
+        cache.start();
+        Path file = Files.writeString(tempDir.resolve("watched.txt"), "abc");
+        AtomicInteger loads = new AtomicInteger();
+        cache.getFileInfo(file, () -> info(loads.incrementAndGet()));
+
+        Files.writeString(file, "abcdef");
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (loads.get() < 2 && System.nanoTime() < deadline) {
+            cache.getFileInfo(file, () -> info(loads.incrementAndGet()));
+            Thread.sleep(20);
+        }
+        assertTrue(loads.get() >= 2);
+    }
+
+    private MetadataCache newCache(boolean enabled, Duration ttl, boolean watch) {
+        CacheProperties properties = new CacheProperties();
+        properties.getMetadata().setEnabled(enabled);
+        properties.getMetadata().setTtl(ttl);
+        properties.getMetadata().setWatch(watch);
+        watcher = new FileTreeWatcher(new RootPathProperties(tempDir), new FileIOProperties());
+        return new MetadataCache(properties, watcher);
+    }
+
+    private static FileInfo info(long size) {
+        return FileInfo.builder().name("entry").path("entry").size(size).build();
+    }
+}
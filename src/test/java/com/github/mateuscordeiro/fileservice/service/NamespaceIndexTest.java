@@ -0,0 +1,170 @@
+package com.github.mateuscordeiro.fileservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.github.mateuscordeiro.fileservice.config.FileIOProperties;
+import com.github.mateuscordeiro.fileservice.config.IndexProperties;
+import com.github.mateuscordeiro.fileservice.config.RootPathProperties;
+import com.github.mateuscordeiro.fileservice.io.FileIOManagerImpl;
+import com.github.mateuscordeiro.fileservice.io.FileTreeWatcher;
+import com.github.mateuscordeiro.fileservice.service.NamespaceIndex.IndexEntry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NamespaceIndexTest {
+    @TempDir
+    Path tempDir;
+    private NamespaceIndex index;
+    private FileIOManagerImpl fileIOManager;
+
+    @AfterEach
+    void tearDown() {
+        if (index != null) {
+            index.close();
+        }
+        if (fileIOManager != null) {
+            fileIOManager.close();
+        }
+    }
+
+    @Test
+    void lookup_whenDisabled_cannotAnswer() throws IOException {
+        index = newIndex(false);
+
+        assertTrue(index.lookup(tempDir).isEmpty());
+    }
+
+    @Test
+    void lookupAndChildren_afterStart_answerFromTheWalkedTree() throws IOException {
+        Files.createDirectories(tempDir.resolve("a/b"));
+        Files.writeString(tempDir.resolve("a/file.txt"), "12345");
+        index = newIndex(true);
+
+        IndexEntry file = index.lookup(tempDir.resolve("a/file.txt")).orElseThrow();
+        assertEquals(5, file.size());
+        assertFalse(file.directory());
+        assertTrue(index.lookup(tempDir.resolve("a/b")).orElseThrow().directory());
+        assertFalse(index.lookup(tempDir.resolve("a/missing")).orElseThrow().exists());
+        List<IndexEntry> children = index.children(tempDir.resolve("a")).orElseThrow();
+        assertEquals(2, children.size());
+    }
+
+    @Test
+    void lookup_belowSymbolicLinkToDirectory_fallsBackToFilesystem() throws IOException {
+        Path target = Files.createDirectories(tempDir.resolve("target"));
+        Files.writeString(target.resolve("inner.txt"), "x");
+        Files.createSymbolicLink(tempDir.resolve("link"), target);
+        index = newIndex(true);
+
+        assertTrue(index.lookup(tempDir.resolve("link")).orElseThrow().directory());
+        assertTrue(index.lookup(tempDir.resolve("link/inner.txt")).isEmpty());
+        assertTrue(index.children(tempDir.resolve("link")).isEmpty());
+    }
+
+    @Test
+    void refresh_afterExternalChange_updatesEntryAndCreatesMissingAncestors() throws IOException {
+        index = newIndex(true);
+        Path nested = tempDir.resolve("x/y/z.txt");
+        Files.createDirectories(nested.getParent());
+        Files.writeString(nested, "abc");
+
+        index.refresh(nested);
+        assertEquals(3, index.lookup(nested).orElseThrow().size());
+        assertTrue(index.lookup(tempDir.resolve("x/y")).orElseThrow().directory());
+
+        Files.delete(nested);
+        index.refresh(nested);
+        assertFalse(index.lookup(nested).orElseThrow().exists());
+        assertTrue(index.verify(false).getMismatches().isEmpty());
+    }
+
+    @Test
+    void lookupAndChildren_whenContentStoreIsUnderRoot_leaveItOut() throws IOException {
+        Files.createDirectories(tempDir.resolve(".cas/ab"));
+        Files.writeString(tempDir.resolve(".cas/ab/blob"), "x");
+        Files.writeString(tempDir.resolve("file.txt"), "x");
+        index = newIndex(true);
+
+        assertFalse(index.lookup(tempDir.resolve(".cas")).orElseThrow().exists());
+        List<IndexEntry> children = index.children(tempDir).orElseThrow();
+        assertEquals(List.of("file.txt"), children.stream().map(IndexEntry::name).toList());
+
+        index.refresh(tempDir.resolve(".cas/ab/blob"));
+        assertFalse(index.lookup(tempDir.resolve(".cas")).orElseThrow().exists());
+    }
+
+    @Test
+    void resized_afterAppend_updatesIndexedSize() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("log.txt"), "abc");
+        index = newIndex(true);
+
+        Files.writeString(file, "defg", StandardOpenOption.APPEND);
+        index.resized(file);
+        assertEquals(7, index.lookup(file).orElseThrow().size());
+
+        Path created = Files.writeString(tempDir.resolve("new.txt"), "ab");
+        index.resized(created);
+        assertEquals(2, index.lookup(created).orElseThrow().size());
+        assertTrue(index.verify(false).getMismatches().isEmpty());
+    }
+
+    @Test
+    void refresh_ofDirectoryRacingFileRefreshes_keepsTheNewerFileEntries() throws Exception {
+        Path dir = Files.createDirectories(tempDir.resolve("dir"));
+        for (int i = 0; i < 200; i++) {
+            Files.writeString(dir.resolve("file-" + i), "x");
+        }
+        index = newIndex(true);
+        Path churned = dir.resolve("churned.txt");
+        AtomicBoolean done = new AtomicBoolean();
+
+        CompletableFuture<Void> scans = CompletableFuture.runAsync(() -> {
+            while (!done.get()) {
+                index.refresh(dir);
+            }
+        });
+        try {
+            for (int i = 0; i < 500; i++) {
+                if (i % 2 == 0) {
+                    Files.writeString(churned, "abc".repeat(i + 1));
+                } else {
+                    Files.delete(churned);
+                }
+                index.refresh(churned);
+            }
+        } finally {
+            done.set(true);
+            scans.get();
+        }
+
+        assertFalse(index.lookup(churned).orElseThrow().exists());
+        assertTrue(index.verify(false).getMismatches().isEmpty());
+    }
+
+    private NamespaceIndex newIndex(boolean enabled) throws IOException {
+        IndexProperties properties = new IndexProperties();
+        properties.setEnabled(enabled);
+        properties.setWatch(false);
+        RootPathProperties rootPathProperties = new RootPathProperties(tempDir);
+        FileTreeWatcher watcher = new FileTreeWatcher(rootPathProperties, new FileIOProperties());
+        FileIOProperties ioProperties = new FileIOProperties();
+        ioProperties.getCas().setEnabled(true);
+        ioProperties.getCas().setDir(tempDir.resolve(".cas"));
+        fileIOManager = new FileIOManagerImpl(ioProperties, new SimpleMeterRegistry());
+        NamespaceIndex namespaceIndex = new NamespaceIndex(properties, rootPathProperties, watcher, fileIOManager);
+        namespaceIndex.start();
+        return namespaceIndex;
+    }
+}
@@ -85,4 +85,17 @@ public class ValidationUtilsTest {
     void requireNonNegative_whenNegative_throwsIllegalArgumentException() {
         assertThrows(IllegalArgumentException.class, () -> ValidationUtils.requireNonNegative(-10, "value"));
     }
-}
\ No newline at end of file
+
+    // requireAtMost
+    @Test
+    void requireAtMost_whenEqualToMax_doesNotThrow() {
+        assertDoesNotThrow(() -> ValidationUtils.requireAtMost(10, 10, "value"));
+    }
+
+    @Test
+    void requireAtMost_whenAboveMax_throwsIllegalArgumentException() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ValidationUtils.requireAtMost(11, 10, "length"));
+        assertTrue(ex.getMessage().contains("length"));
+    }
+}